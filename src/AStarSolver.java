@@ -0,0 +1,73 @@
+public class AStarSolver implements GridSolver {
+    private final SearchState state = new SearchState();
+    private Heuristic heuristic;
+    private final int[] neighbors = new int[4];
+    private int expanded;
+    private IndexedMinHeap openSet = new IndexedMinHeap(0);
+    private int capacity;
+
+    public AStarSolver() {
+    }
+
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /** Sets the heuristic for later searches, or null for Manhattan distance. */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        int size = grid.size();
+        if (capacity != size) {
+            openSet = new IndexedMinHeap(size);
+            capacity = size;
+        } else {
+            openSet.clear();
+        }
+        state.reset(size);
+        expanded = 0;
+
+        Heuristic estimate = heuristic != null ? heuristic : new ManhattanHeuristic(grid.getCols());
+        int h = estimate.estimate(start, end);
+        state.reach(start, 0, -1);
+        openSet.add(start, priority(h, h));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            expanded++;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            state.close(current);
+            int g = state.getGCost(current);
+            int count = grid.openNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                int tentativeG = g + grid.getCost(neighbor);
+                if (state.isClosed(neighbor) || tentativeG >= state.getGCost(neighbor)) continue;
+                boolean inOpen = openSet.contains(neighbor);
+                state.reach(neighbor, tentativeG, current);
+                int nh = estimate.estimate(neighbor, end);
+                if (inOpen) {
+                    openSet.decreaseKey(neighbor, priority(tentativeG + nh, nh));
+                } else {
+                    openSet.add(neighbor, priority(tentativeG + nh, nh));
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    // Orders by f-cost, breaking ties towards the cell closer to the goal
+    private static long priority(int f, int h) {
+        return ((long) f << 32) | h;
+    }
+}
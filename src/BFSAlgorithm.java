@@ -5,57 +5,71 @@ public class BFSAlgorithm implements PathfindingAlgorithm {
     private Cell[][] grid;
     private Cell end;
     private Queue<Cell> queue;
-    private boolean[][] visited;
+    private final SearchState state = new SearchState();
+    private int cols;
     private boolean finished;
     private Set<Cell> frontier;
     private Set<Cell> visitedSet;
     private List<Cell> path;
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+    private GridTopology.Movement movement = GridTopology.Movement.FOUR;
+    private GridTopology topology;
+    private final int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
 
     @Override
     public void initialize(Cell[][] grid, Cell start, Cell end) {
     this.grid = grid;
     this.end = end;
         int rows = grid.length;
-        int cols = grid[0].length;
-        this.queue = new LinkedList<>();
-        this.visited = new boolean[rows][cols];
+        this.cols = grid[0].length;
+        this.topology = new GridTopology(start.getGrid(), movement);
+        this.queue = new ArrayDeque<>();
         this.frontier = new HashSet<>();
         this.visitedSet = new HashSet<>();
     this.finished = false;
     this.path = null;
+    this.expanded = 0;
         queue.add(start);
-        visited[start.getRow()][start.getCol()] = true;
-        start.setParent(null);
+        state.reset(rows * cols);
+        state.reach(start.getIndex(), 0, -1);
         frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
         visitedSet.clear();
     }
 
     @Override
     public boolean step() {
         if (finished) return true;
-        Set<Cell> newFrontier = new HashSet<>();
+        Set<Cell> newFrontier = trackVisualization ? new HashSet<>() : null;
         int size = queue.size();
         for (int i = 0; i < size; i++) {
             Cell current = queue.poll();
             if (current == null) continue;
-            visitedSet.add(current);
+            if (trackVisualization) visitedSet.add(current);
+            if (listener != null) listener.cellClosed(current);
+            expanded++;
             if (current == end) {
                 finished = true;
-                path = reconstructPath(end);
+                path = reconstructPath(current.getIndex());
                 frontier.clear();
                 return true;
             }
-            for (Cell neighbor : getNeighbors(grid, current)) {
-                int r = neighbor.getRow(), c = neighbor.getCol();
-                if (!visited[r][c] && !neighbor.isWall()) {
-                    visited[r][c] = true;
-                    neighbor.setParent(current);
+            int currentIndex = current.getIndex();
+            int count = topology.neighbors(currentIndex, neighbors);
+            for (int n = 0; n < count; n++) {
+                int index = neighbors[n];
+                if (!state.isReached(index)) {
+                    state.reach(index, state.getGCost(currentIndex) + 1, currentIndex);
+                    Cell neighbor = grid[index / cols][index % cols];
                     queue.add(neighbor);
-                    newFrontier.add(neighbor);
+                    if (newFrontier != null) newFrontier.add(neighbor);
+                    if (listener != null) listener.cellOpened(neighbor);
                 }
             }
         }
-        frontier = newFrontier;
+        if (newFrontier != null) frontier = newFrontier;
         if (queue.isEmpty() && !finished) {
             finished = true;
             path = null;
@@ -83,28 +97,38 @@ public class BFSAlgorithm implements PathfindingAlgorithm {
         return finished;
     }
 
-    private List<Cell> reconstructPath(Cell end) {
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        this.movement = movement;
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return true;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private List<Cell> reconstructPath(int endIndex) {
         List<Cell> result = new ArrayList<>();
-        for (Cell at = end; at != null; at = at.getParent()) {
-            result.add(at);
+        for (int at = endIndex; at != -1; at = state.getParent(at)) {
+            result.add(grid[at / cols][at % cols]);
         }
         Collections.reverse(result);
         return result;
     }
 
-    private List<Cell> getNeighbors(Cell[][] grid, Cell cell) {
-        int[] dRow = {-1, 1, 0, 0};
-        int[] dCol = {0, 0, -1, 1};
-        List<Cell> neighbors = new ArrayList<>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-        for (int i = 0; i < 4; i++) {
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
-            if (newRow >= 0 && newRow < grid.length && newCol >= 0 && newCol < grid[0].length) {
-                neighbors.add(grid[newRow][newCol]);
-            }
-        }
-        return neighbors;
-    }
 }
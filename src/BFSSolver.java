@@ -0,0 +1,44 @@
+public class BFSSolver implements GridSolver {
+    private final SearchState state = new SearchState();
+    private final int[] neighbors = new int[4];
+    private int expanded;
+    private int[] queue = new int[0];
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        int size = grid.size();
+        if (queue.length != size) {
+            queue = new int[size];
+        }
+        state.reset(size);
+        expanded = 0;
+
+        // Every cell is enqueued at most once, so the queue never wraps
+        int head = 0;
+        int tail = 0;
+        state.reach(start, 0, -1);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            expanded++;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            int nextG = state.getGCost(current) + 1;
+            int count = grid.openNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (state.isReached(neighbor)) continue;
+                state.reach(neighbor, nextG, current);
+                queue[tail++] = neighbor;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many start/end queries on one grid in parallel. The query list is split into
+ * chunks across a ForkJoinPool; each worker thread reuses its own solver instances, so
+ * the per-query cost is the search itself. The grid's walls must not change while a
+ * batch is running. The solvers hold grid-sized arrays and belong to this
+ * BatchPathfinder, not to the pool's threads, so {@link #close()} frees them.
+ *
+ * Queries between disconnected regions come back as null without a search, from a
+ * {@link ConnectedComponents} index kept for the last grid solved. The index follows
+ * later edits to that grid, so repeated batches on it only pay for the first labelling.
+ * The labels are brought up to date once per batch and then read without locking.
+ * Closing also stops the index listening to the grid.
+ *
+ * Constructed with a cache size, it also keeps a {@link PathCache} for the last grid
+ * solved, so a query repeated within a batch or across batches is searched only once.
+ * The cache follows edits to the grid between batches, like the component index.
+ */
+public class BatchPathfinder implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final int cacheEntries;
+    private final long cacheCells;
+    // Each thread's map is only touched by that thread
+    private final Map<Thread, Map<String, GridSolver>> solvers = new ConcurrentHashMap<>();
+    private GridMap indexedGrid;
+    private ConnectedComponents components;
+    private PathCache cache;
+
+    public BatchPathfinder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchPathfinder(ForkJoinPool pool) {
+        this(pool, 0, 0);
+    }
+
+    /** Caches up to {@code cacheEntries} paths holding {@code cacheCells} cells in total; 0 entries disables the cache. */
+    public BatchPathfinder(ForkJoinPool pool, int cacheEntries, long cacheCells) {
+        this.pool = pool;
+        this.cacheEntries = cacheEntries;
+        this.cacheCells = cacheCells;
+    }
+
+    public BatchResult solve(GridMap grid, List<PathQuery> queries, String algorithm) {
+        if (!GridSolvers.NAMES.contains(algorithm)) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+        for (int i = 0; i < queries.size(); i++) {
+            PathQuery query = queries.get(i);
+            if (query.getStart() < 0 || query.getStart() >= grid.size() || query.getEnd() < 0 || query.getEnd() >= grid.size()) {
+                throw new IllegalArgumentException("Query " + i + " (" + query.getStart() + " -> " + query.getEnd()
+                    + ") is outside a grid of " + grid.size() + " cells");
+            }
+        }
+        int[][] paths = new int[queries.size()][];
+        int chunkSize = Math.max(16, queries.size() / (pool.getParallelism() * 4));
+        ConnectedComponents index;
+        PathCache batchCache;
+        synchronized (this) {
+            index = componentsFor(grid);
+            batchCache = cache;
+        }
+        int[] labels = index.labels();
+        pool.invoke(new SolveTask(grid, labels, batchCache, queries, algorithm, paths, 0, queries.size(), chunkSize));
+        return new BatchResult(paths);
+    }
+
+    /**
+     * Frees the solvers' search arrays and drops the component index and path cache, so
+     * edits to the last grid solved no longer update them. The BatchPathfinder may still be
+     * used afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        for (Map<String, GridSolver> perThread : solvers.values()) {
+            for (GridSolver solver : perThread.values()) {
+                // HPA* listens to the grid it was built for
+                if (solver instanceof HierarchicalPathfinder) ((HierarchicalPathfinder) solver).close();
+            }
+        }
+        solvers.clear();
+        if (components != null) components.close();
+        if (cache != null) cache.close();
+        components = null;
+        cache = null;
+        indexedGrid = null;
+    }
+
+    private synchronized ConnectedComponents componentsFor(GridMap grid) {
+        if (indexedGrid != grid) {
+            if (components != null) components.close();
+            if (cache != null) cache.close();
+            components = new ConnectedComponents(grid);
+            cache = cacheEntries > 0 ? new PathCache(grid, cacheEntries, cacheCells) : null;
+            indexedGrid = grid;
+        }
+        return components;
+    }
+
+    private GridSolver solverFor(String algorithm) {
+        return solvers.computeIfAbsent(Thread.currentThread(), thread -> new HashMap<>())
+            .computeIfAbsent(algorithm, GridSolvers::create);
+    }
+
+    @SuppressWarnings("serial") // never serialized: holds the enclosing BatchPathfinder
+    private class SolveTask extends RecursiveAction {
+        private final GridMap grid;
+        private final int[] labels;
+        private final PathCache cache;
+        private final List<PathQuery> queries;
+        private final String algorithm;
+        private final int[][] paths;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        SolveTask(GridMap grid, int[] labels, PathCache cache, List<PathQuery> queries, String algorithm,
+                  int[][] paths, int from, int to, int chunkSize) {
+            this.grid = grid;
+            this.labels = labels;
+            this.cache = cache;
+            this.queries = queries;
+            this.algorithm = algorithm;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                GridSolver solver = solverFor(algorithm);
+                for (int i = from; i < to; i++) {
+                    PathQuery query = queries.get(i);
+                    int label = labels[query.getStart()];
+                    if (label == ConnectedComponents.WALL || label != labels[query.getEnd()]) continue;
+                    paths[i] = cache != null
+                        ? cache.findPath(algorithm, query.getStart(), query.getEnd(), solver)
+                        : solver.solve(grid, query.getStart(), query.getEnd());
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveTask(grid, labels, cache, queries, algorithm, paths, from, mid, chunkSize),
+                      new SolveTask(grid, labels, cache, queries, algorithm, paths, mid, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Paths returned by {@link BatchPathfinder}, in the same order as the queries.
+ */
+public final class BatchResult {
+    private final int[][] paths;
+
+    BatchResult(int[][] paths) {
+        this.paths = paths;
+    }
+
+    public int size() { return paths.length; }
+
+    /** Returns the path for query {@code i} as cell indices, or null if it has none. */
+    public int[] getPath(int i) { return paths[i]; }
+
+    /** Returns the number of moves in the path for query {@code i}, or -1 if it has none. */
+    public int getPathLength(int i) {
+        return paths[i] == null ? -1 : paths[i].length - 1;
+    }
+}
@@ -0,0 +1,298 @@
+import java.util.*;
+
+/**
+ * Bidirectional A* that stays optimal, or bidirectional Dijkstra when built without a
+ * heuristic. A forward search from the start and a backward search from the end run on
+ * array state, and each step expands the side with fewer queued cells.
+ *
+ * Every edge relaxed into a cell the other side has reached is a candidate path, and the
+ * cheapest is kept. Stopping at the first meeting cell, as
+ * {@link BidirectionalSearchAlgorithm} does, can miss a cheaper path. Instead the search
+ * stops once no better path can exist. For A* that is when either queue's smallest
+ * f-cost is at least the best cost, since each side's heuristic is admissible. For
+ * Dijkstra it is when the two smallest g-costs add up to at least the best cost.
+ *
+ * A cell already closed by the other side is not expanded further. Its cheapest way on
+ * is already known and was counted when the two sides met there.
+ */
+public class BidirectionalAStar implements PathfindingAlgorithm, GridSolver {
+    private final boolean useHeuristic;
+
+    private Cell[][] cells;
+    private GridMap grid;
+    private int cols;
+    private int startRow;
+    private int startCol;
+    private int endRow;
+    private int endCol;
+
+    private final SearchState forward = new SearchState();
+    private final SearchState backward = new SearchState();
+    private IndexedMinHeap forwardOpen = new IndexedMinHeap(0);
+    private IndexedMinHeap backwardOpen = new IndexedMinHeap(0);
+    private int capacity;
+    private final int[] neighbors = new int[4];
+    private long best;
+    private int meetingPoint;
+
+    private boolean finished;
+    private int[] pathIndices;
+    private List<Cell> path;
+    private Set<Cell> frontier = new HashSet<>();
+    private Set<Cell> visitedSet = new HashSet<>();
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+
+    public BidirectionalAStar(boolean useHeuristic) {
+        this.useHeuristic = useHeuristic;
+    }
+
+    @Override
+    public void initialize(Cell[][] grid, Cell start, Cell end) {
+        this.cells = grid;
+        this.frontier = new HashSet<>();
+        this.visitedSet = new HashSet<>();
+        this.path = null;
+        begin(start.getGrid(), start.getIndex(), end.getIndex());
+        frontier.add(start);
+        frontier.add(end);
+        if (listener != null) {
+            listener.cellOpened(start);
+            listener.cellOpened(end);
+        }
+    }
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        this.cells = null;
+        begin(grid, start, end);
+        solve();
+        return pathIndices;
+    }
+
+    private void begin(GridMap grid, int start, int end) {
+        this.grid = grid;
+        this.cols = grid.getCols();
+        this.startRow = start / cols;
+        this.startCol = start % cols;
+        this.endRow = end / cols;
+        this.endCol = end % cols;
+        this.finished = false;
+        this.pathIndices = null;
+        this.expanded = 0;
+        this.best = Long.MAX_VALUE;
+        this.meetingPoint = -1;
+
+        int size = grid.size();
+        if (capacity != size) {
+            forwardOpen = new IndexedMinHeap(size);
+            backwardOpen = new IndexedMinHeap(size);
+            capacity = size;
+        } else {
+            forwardOpen.clear();
+            backwardOpen.clear();
+        }
+        forward.reset(size);
+        backward.reset(size);
+        forward.reach(start, 0, -1);
+        backward.reach(end, 0, -1);
+        forwardOpen.add(start, forwardKey(start, 0));
+        backwardOpen.add(end, backwardKey(end, 0));
+        if (start == end) {
+            best = 0;
+            meetingPoint = start;
+        }
+    }
+
+    @Override
+    public boolean step() {
+        if (finished) return true;
+        if (forwardOpen.isEmpty() || backwardOpen.isEmpty() || canStop()) {
+            finish();
+            return true;
+        }
+        Set<Cell> newFrontier = trackVisualization && cells != null ? new HashSet<>() : null;
+        if (forwardOpen.size() <= backwardOpen.size()) {
+            expandForward(newFrontier);
+        } else {
+            expandBackward(newFrontier);
+        }
+        if (newFrontier != null) {
+            frontier.addAll(newFrontier);
+        }
+        return false;
+    }
+
+    // Entering a cell costs that cell's cost, so g is the cost from the start to the cell
+    private void expandForward(Set<Cell> newFrontier) {
+        int current = forwardOpen.poll();
+        closed(current);
+        forward.close(current);
+        // The best way on from a cell the other side has closed is already known
+        if (backward.isClosed(current)) return;
+        int g = forward.getGCost(current);
+        int count = grid.openNeighbors(current, neighbors);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            if (forward.isClosed(neighbor)) continue;
+            int tentativeG = g + grid.getCost(neighbor);
+            if (tentativeG >= forward.getGCost(neighbor)) continue;
+            boolean inOpen = forwardOpen.contains(neighbor);
+            forward.reach(neighbor, tentativeG, current);
+            long key = forwardKey(neighbor, tentativeG);
+            if (inOpen) {
+                forwardOpen.decreaseKey(neighbor, key);
+            } else {
+                forwardOpen.add(neighbor, key);
+                opened(neighbor, newFrontier);
+            }
+            if (backward.isReached(neighbor)) meet(neighbor, (long) tentativeG + backward.getGCost(neighbor));
+        }
+    }
+
+    // Backward g is the cost from the cell to the end, counting the end but not the cell itself
+    private void expandBackward(Set<Cell> newFrontier) {
+        int current = backwardOpen.poll();
+        closed(current);
+        backward.close(current);
+        if (forward.isClosed(current)) return;
+        int g = backward.getGCost(current) + grid.getCost(current);
+        int count = grid.openNeighbors(current, neighbors);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            if (backward.isClosed(neighbor) || g >= backward.getGCost(neighbor)) continue;
+            boolean inOpen = backwardOpen.contains(neighbor);
+            backward.reach(neighbor, g, current);
+            long key = backwardKey(neighbor, g);
+            if (inOpen) {
+                backwardOpen.decreaseKey(neighbor, key);
+            } else {
+                backwardOpen.add(neighbor, key);
+                opened(neighbor, newFrontier);
+            }
+            if (forward.isReached(neighbor)) meet(neighbor, (long) g + forward.getGCost(neighbor));
+        }
+    }
+
+    private void meet(int cell, long cost) {
+        if (cost < best) {
+            best = cost;
+            meetingPoint = cell;
+        }
+    }
+
+    private void closed(int index) {
+        expanded++;
+        if (cells == null) return;
+        Cell cell = cellAt(index);
+        if (trackVisualization) {
+            visitedSet.add(cell);
+            frontier.remove(cell);
+        }
+        if (listener != null) listener.cellClosed(cell);
+    }
+
+    private void opened(int index, Set<Cell> newFrontier) {
+        if (cells == null) return;
+        Cell cell = cellAt(index);
+        if (newFrontier != null) newFrontier.add(cell);
+        if (listener != null) listener.cellOpened(cell);
+    }
+
+    private void finish() {
+        finished = true;
+        frontier.clear();
+        if (meetingPoint < 0) {
+            pathIndices = null;
+            path = null;
+            return;
+        }
+        int[] head = forward.buildPath(meetingPoint);
+        int tailLength = 0;
+        for (int at = backward.getParent(meetingPoint); at != -1; at = backward.getParent(at)) {
+            tailLength++;
+        }
+        pathIndices = Arrays.copyOf(head, head.length + tailLength);
+        int i = head.length;
+        for (int at = backward.getParent(meetingPoint); at != -1; at = backward.getParent(at)) {
+            pathIndices[i++] = at;
+        }
+        if (cells != null) {
+            path = new ArrayList<>(pathIndices.length);
+            for (int index : pathIndices) {
+                path.add(cellAt(index));
+            }
+        } else {
+            path = null;
+        }
+    }
+
+    private boolean canStop() {
+        if (best == Long.MAX_VALUE) return false;
+        long forwardTop = forwardOpen.peekKey() >>> 32;
+        long backwardTop = backwardOpen.peekKey() >>> 32;
+        return useHeuristic ? Math.max(forwardTop, backwardTop) >= best : forwardTop + backwardTop >= best;
+    }
+
+    private long forwardKey(int index, int g) {
+        int h = heuristic(index, endRow, endCol);
+        return priority(g + h, h);
+    }
+
+    private long backwardKey(int index, int g) {
+        int h = heuristic(index, startRow, startCol);
+        return priority(g + h, h);
+    }
+
+    // Orders by f-cost, breaking ties towards the cell closer to the other end
+    private static long priority(int f, int h) {
+        return ((long) f << 32) | h;
+    }
+
+    private int heuristic(int index, int row, int col) {
+        if (!useHeuristic) return 0;
+        int r = index / cols;
+        int c = index - r * cols;
+        return Math.abs(r - row) + Math.abs(c - col);
+    }
+
+    private Cell cellAt(int index) {
+        return cells[index / cols][index % cols];
+    }
+
+    @Override
+    public List<Cell> getPath() {
+        return path;
+    }
+
+    @Override
+    public Set<Cell> getFrontier() {
+        return new HashSet<>(frontier);
+    }
+
+    @Override
+    public Set<Cell> getVisited() {
+        return new HashSet<>(visitedSet);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
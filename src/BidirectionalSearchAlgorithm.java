@@ -16,12 +16,18 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
 
     private boolean finished;
     private List<Cell> path;
+    private int expanded;
+    private StepListener listener;
+    private GridTopology.Movement movement = GridTopology.Movement.FOUR;
+    private GridTopology topology;
+    private final int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
 
     @Override
     public void initialize(Cell[][] grid, Cell start, Cell end) {
         this.grid = grid;
         this.start = start;
         this.end = end;
+        this.topology = new GridTopology(start.getGrid(), movement);
 
         this.frontierStart = new ArrayDeque<>();
         this.frontierEnd = new ArrayDeque<>();
@@ -34,6 +40,7 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
 
         this.finished = false;
         this.path = null;
+        this.expanded = 0;
 
         frontierStart.add(start);
         frontierEnd.add(end);
@@ -43,6 +50,11 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
 
         parentStart.put(start, null);
         parentEnd.put(end, null);
+
+        if (listener != null) {
+            listener.cellOpened(start);
+            listener.cellOpened(end);
+        }
     }
 
     @Override
@@ -73,13 +85,19 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
     private boolean expandFrontier(Queue<Cell> frontier, Set<Cell> thisVisited, Set<Cell> otherVisited,
                                    Map<Cell, Cell> thisParent, Map<Cell, Cell> otherParent, boolean fromStart) {
         Cell current = frontier.poll();
+        expanded++;
+        if (listener != null) listener.cellClosed(current);
 
-        for (Cell neighbor : getNeighbors(grid, current)) {
-            if (neighbor.isWall() || thisVisited.contains(neighbor)) continue;
+        // Every movement rule is symmetric, so the backward search uses the same neighbours
+        int count = topology.neighbors(current.getIndex(), neighbors);
+        for (int i = 0; i < count; i++) {
+            Cell neighbor = cellAt(neighbors[i]);
+            if (thisVisited.contains(neighbor)) continue;
 
             thisVisited.add(neighbor);
             thisParent.put(neighbor, current);
             frontier.add(neighbor);
+            if (listener != null) listener.cellOpened(neighbor);
 
             // Meeting point
             if (otherVisited.contains(neighbor)) {
@@ -91,6 +109,11 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
         return false;
     }
 
+    private Cell cellAt(int index) {
+        int cols = grid[0].length;
+        return grid[index / cols][index % cols];
+    }
+
     private List<Cell> buildPath(Cell meetingPoint, Map<Cell, Cell> parentStart, Map<Cell, Cell> parentEnd) {
         List<Cell> pathFromStart = new ArrayList<>();
         for (Cell at = meetingPoint; at != null; at = parentStart.get(at)) {
@@ -133,19 +156,24 @@ public class BidirectionalSearchAlgorithm implements PathfindingAlgorithm {
         return finished;
     }
 
-    private List<Cell> getNeighbors(Cell[][] grid, Cell cell) {
-        int[] dRow = {-1, 1, 0, 0};
-        int[] dCol = {0, 0, -1, 1};
-        List<Cell> neighbors = new ArrayList<>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-        for (int i = 0; i < 4; i++) {
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
-            if (newRow >= 0 && newRow < grid.length && newCol >= 0 && newCol < grid[0].length) {
-                neighbors.add(grid[newRow][newCol]);
-            }
-        }
-        return neighbors;
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
     }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        this.movement = movement;
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return true;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
 }
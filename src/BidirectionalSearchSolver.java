@@ -0,0 +1,91 @@
+public class BidirectionalSearchSolver implements GridSolver {
+    private final SearchState forward = new SearchState();
+    private final SearchState backward = new SearchState();
+    private final int[] neighbors = new int[4];
+    private int[] queueStart = new int[0];
+    private int[] queueEnd = new int[0];
+    private int headStart, tailStart, headEnd, tailEnd;
+    private int meetingPoint;
+    private int expanded;
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        int size = grid.size();
+        if (queueStart.length != size) {
+            queueStart = new int[size];
+            queueEnd = new int[size];
+        }
+        forward.reset(size);
+        backward.reset(size);
+        expanded = 0;
+        if (start == end) {
+            return new int[] {start};
+        }
+
+        headStart = tailStart = headEnd = tailEnd = 0;
+        forward.reach(start, 0, -1);
+        backward.reach(end, 0, -1);
+        queueStart[tailStart++] = start;
+        queueEnd[tailEnd++] = end;
+
+        while (headStart < tailStart || headEnd < tailEnd) {
+            if (headStart < tailStart && expandStart(grid)) {
+                return buildPath();
+            }
+            if (headEnd < tailEnd && expandEnd(grid)) {
+                return buildPath();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private boolean expandStart(GridMap grid) {
+        int current = queueStart[headStart++];
+        expanded++;
+        int count = grid.openNeighbors(current, neighbors);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            if (forward.isReached(neighbor)) continue;
+            forward.reach(neighbor, forward.getGCost(current) + 1, current);
+            queueStart[tailStart++] = neighbor;
+            if (backward.isReached(neighbor)) {
+                meetingPoint = neighbor;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean expandEnd(GridMap grid) {
+        int current = queueEnd[headEnd++];
+        expanded++;
+        int count = grid.openNeighbors(current, neighbors);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            if (backward.isReached(neighbor)) continue;
+            backward.reach(neighbor, backward.getGCost(current) + 1, current);
+            queueEnd[tailEnd++] = neighbor;
+            if (forward.isReached(neighbor)) {
+                meetingPoint = neighbor;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] buildPath() {
+        int[] head = forward.buildPath(meetingPoint);
+        int tailLength = backward.getGCost(meetingPoint);
+        int[] path = java.util.Arrays.copyOf(head, head.length + tailLength);
+        int i = head.length;
+        for (int at = backward.getParent(meetingPoint); at != -1; at = backward.getParent(at)) {
+            path[i++] = at;
+        }
+        return path;
+    }
+}
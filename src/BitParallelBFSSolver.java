@@ -0,0 +1,174 @@
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Breadth-first search that expands a whole wavefront at once, 64 cells per long. Every
+ * bitset is row-aligned, each row padded to whole words. So the next layer of a row is
+ * the frontier of that row shifted left and right, OR'd with the rows above and below,
+ * masked by the open cells and not yet visited.
+ *
+ * No per-cell parent or distance is stored. Each reached cell instead records its
+ * distance mod 3 in two bit-planes. A cell's neighbours are at most one step closer or
+ * further, so walking back from the goal, the neighbour whose layer is one less mod 3 is
+ * always a step on a shortest path. Paths have the same length as {@link BFSSolver},
+ * using 7 bits per cell instead of several ints: six bitsets, and two word lists of one
+ * int per 64 cells.
+ */
+public class BitParallelBFSSolver implements GridSolver {
+    private GridMap openGrid;
+    private long openVersion;
+    private int rows;
+    private int cols;
+    private int words;
+
+    private long[] open = new long[0];
+    private long[] visited = new long[0];
+    private long[] frontier = new long[0];
+    private long[] next = new long[0];
+    // Distance mod 3 of every visited cell: bit 0 in plane0, bit 1 in plane1
+    private long[] plane0 = new long[0];
+    private long[] plane1 = new long[0];
+    // Indices of the non-empty words of the frontier and of the layer being built
+    private int[] activeWords = new int[0];
+    private int[] reachedWords = new int[0];
+    private int expanded;
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        if (openGrid != grid || openVersion != grid.getVersion()) {
+            buildOpen(grid);
+        }
+        expanded = 1;
+        int total = rows * words;
+        Arrays.fill(visited, 0, total, 0L);
+        Arrays.fill(frontier, 0, total, 0L);
+        Arrays.fill(next, 0, total, 0L);
+        Arrays.fill(plane0, 0, total, 0L);
+        Arrays.fill(plane1, 0, total, 0L);
+        if (start == end) return new int[] {start};
+
+        int startWord = start / cols * words + (start % cols >>> 6);
+        frontier[startWord] = 1L << (start % cols);
+        visited[startWord] = frontier[startWord];
+        int endWord = end / cols * words + (end % cols >>> 6);
+        long endMask = 1L << (end % cols);
+
+        int[] active = activeWords;
+        int activeCount = 1;
+        active[0] = startWord;
+        int distance = 0;
+        while (true) {
+            distance++;
+            // Push each frontier word into its own word and the four around it
+            int[] reached = reachedWords;
+            int reachedCount = 0;
+            for (int k = 0; k < activeCount; k++) {
+                int i = active[k];
+                long f = frontier[i];
+                int w = i % words;
+                reachedCount = push(i, (f << 1) | (f >>> 1), reached, reachedCount);
+                if (w > 0) reachedCount = push(i - 1, f << 63, reached, reachedCount);
+                if (w < words - 1) reachedCount = push(i + 1, f >>> 63, reached, reachedCount);
+                if (i >= words) reachedCount = push(i - words, f, reached, reachedCount);
+                if (i + words < rows * words) reachedCount = push(i + words, f, reached, reachedCount);
+            }
+
+            int layer = distance % 3;
+            for (int k = 0; k < reachedCount; k++) {
+                int i = reached[k];
+                long bits = next[i];
+                visited[i] |= bits;
+                if ((layer & 1) != 0) plane0[i] |= bits;
+                if ((layer & 2) != 0) plane1[i] |= bits;
+                expanded += Long.bitCount(bits);
+            }
+            // The old frontier becomes the next buffer, which must start out empty
+            for (int k = 0; k < activeCount; k++) {
+                frontier[active[k]] = 0L;
+            }
+            long[] swapBits = frontier;
+            frontier = next;
+            next = swapBits;
+            activeWords = reached;
+            reachedWords = active;
+            active = reached;
+            activeCount = reachedCount;
+
+            if (activeCount == 0) return null;
+            if ((frontier[endWord] & endMask) != 0) return buildPath(end, distance);
+        }
+    }
+
+    // Adds newly reached open cells to a word of the next layer
+    private int push(int i, long bits, int[] reached, int reachedCount) {
+        bits &= open[i] & ~visited[i];
+        if (bits == 0) return reachedCount;
+        if (next[i] == 0) reached[reachedCount++] = i;
+        next[i] |= bits;
+        return reachedCount;
+    }
+
+    private int[] buildPath(int end, int distance) {
+        int[] path = new int[distance + 1];
+        int current = end;
+        path[distance] = current;
+        for (int d = distance - 1; d >= 0; d--) {
+            int row = current / cols;
+            int col = current % cols;
+            int layer = d % 3;
+            if (row > 0 && isLayer(row - 1, col, layer)) current -= cols;
+            else if (row < rows - 1 && isLayer(row + 1, col, layer)) current += cols;
+            else if (col > 0 && isLayer(row, col - 1, layer)) current -= 1;
+            else current += 1;
+            path[d] = current;
+        }
+        return path;
+    }
+
+    private boolean isLayer(int row, int col, int layer) {
+        int i = row * words + (col >>> 6);
+        long bit = 1L << col;
+        if ((visited[i] & bit) == 0) return false;
+        int value = ((plane0[i] & bit) != 0 ? 1 : 0) | ((plane1[i] & bit) != 0 ? 2 : 0);
+        return value == layer;
+    }
+
+    // Repacks the grid's linear wall bitset into row-aligned words of open cells
+    private void buildOpen(GridMap grid) {
+        rows = grid.getRows();
+        cols = grid.getCols();
+        words = (cols + 63) >>> 6;
+        int total = rows * words;
+        if (open.length < total) {
+            open = new long[total];
+            visited = new long[total];
+            frontier = new long[total];
+            next = new long[total];
+            plane0 = new long[total];
+            plane1 = new long[total];
+            activeWords = new int[total];
+            reachedWords = new int[total];
+        }
+        LongBuffer walls = grid.wallWords();
+        int wallWords = walls.limit();
+        long lastMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        for (int r = 0; r < rows; r++) {
+            for (int w = 0; w < words; w++) {
+                long offset = (long) r * cols + ((long) w << 6);
+                int word = (int) (offset >>> 6);
+                int shift = (int) (offset & 63);
+                long bits = walls.get(word) >>> shift;
+                if (shift != 0 && word + 1 < wallWords) bits |= walls.get(word + 1) << (64 - shift);
+                long mask = w == words - 1 ? lastMask : -1L;
+                open[r * words + w] = ~bits & mask;
+            }
+        }
+        openGrid = grid;
+        openVersion = grid.getVersion();
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone bucket queue (Dial's algorithm) over integer items in the range [0, capacity),
+ * for small non-negative integer keys. There is one bucket per key value, kept in a ring
+ * of {@code maxStep + 1} buckets, with each bucket a doubly linked list threaded through
+ * per-item arrays. Add, decrease-key and remove are O(1). Poll walks forward to the next
+ * non-empty bucket, which in a search costs O(1) amortised per distinct key.
+ *
+ * Keys must be monotone, as they are in Dijkstra: every added or decreased key lies in
+ * [k, k + maxStep], where k is the key of the last item polled (0 before the first).
+ */
+public class BucketQueue {
+    private static final int NONE = -1;
+    private static final int NOT_QUEUED = -2;
+
+    private final int[] heads;
+    private final int mask;
+    private final int maxStep;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] keys;
+    private int size;
+    private int current;
+
+    public BucketQueue(int capacity, int maxStep) {
+        if (maxStep < 1) {
+            throw new IllegalArgumentException("maxStep must be positive: " + maxStep);
+        }
+        int buckets = Integer.highestOneBit(maxStep) << 1;
+        this.heads = new int[buckets];
+        this.mask = buckets - 1;
+        this.maxStep = maxStep;
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(prev, NOT_QUEUED);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int item) { return prev[item] != NOT_QUEUED; }
+    public int getKey(int item) { return keys[item]; }
+
+    public void add(int item, int key) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("Item already queued: " + item);
+        }
+        if (key < current || key > current + maxStep) {
+            throw new IllegalArgumentException("Key " + key + " outside [" + current + ", " + (current + maxStep) + "]");
+        }
+        keys[item] = key;
+        link(item, key);
+        size++;
+    }
+
+    public void decreaseKey(int item, int key) {
+        if (!contains(item)) {
+            throw new IllegalArgumentException("Item not queued: " + item);
+        }
+        if (key > keys[item]) {
+            throw new IllegalArgumentException("New key is greater than current key for item: " + item);
+        }
+        if (key < current) {
+            throw new IllegalArgumentException("Key " + key + " is below the last polled key " + current);
+        }
+        unlink(item);
+        keys[item] = key;
+        link(item, key);
+    }
+
+    public void remove(int item) {
+        if (!contains(item)) {
+            throw new IllegalArgumentException("Item not queued: " + item);
+        }
+        unlink(item);
+        prev[item] = NOT_QUEUED;
+        size--;
+    }
+
+    /** Returns an item with the smallest key without removing it. */
+    public int peek() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty");
+        while (heads[current & mask] == NONE) {
+            current++;
+        }
+        return heads[current & mask];
+    }
+
+    public int poll() {
+        int item = peek();
+        unlink(item);
+        prev[item] = NOT_QUEUED;
+        size--;
+        return item;
+    }
+
+    /** Empties the queue in O(size + buckets) and restarts the keys at 0. */
+    public void clear() {
+        for (int b = 0; b < heads.length; b++) {
+            for (int item = heads[b]; item != NONE; ) {
+                int following = next[item];
+                prev[item] = NOT_QUEUED;
+                item = following;
+            }
+            heads[b] = NONE;
+        }
+        size = 0;
+        current = 0;
+    }
+
+    private void link(int item, int key) {
+        int bucket = key & mask;
+        int head = heads[bucket];
+        next[item] = head;
+        prev[item] = NONE;
+        if (head != NONE) prev[head] = item;
+        heads[bucket] = item;
+    }
+
+    private void unlink(int item) {
+        int before = prev[item];
+        int after = next[item];
+        if (before == NONE) {
+            heads[keys[item] & mask] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) prev[after] = before;
+    }
+}
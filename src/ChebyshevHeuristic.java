@@ -0,0 +1,24 @@
+/**
+ * Chebyshev distance for 8-connected movement: the larger of the row and column
+ * differences, as if a diagonal move cost no more than a straight one. It is never above
+ * {@link OctileHeuristic}, so it is admissible but looser, and suits maps where diagonal
+ * moves are priced like straight ones.
+ */
+public class ChebyshevHeuristic implements Heuristic {
+    private final int cols;
+    private final int straightCost;
+
+    public ChebyshevHeuristic(int cols, int straightCost) {
+        this.cols = cols;
+        this.straightCost = straightCost;
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int fromRow = from / cols;
+        int toRow = to / cols;
+        int dRow = Math.abs(fromRow - toRow);
+        int dCol = Math.abs(from - fromRow * cols - (to - toRow * cols));
+        return Math.max(dRow, dCol) * straightCost;
+    }
+}
@@ -0,0 +1,287 @@
+import java.util.Arrays;
+
+/**
+ * Labels every open cell of a {@link GridMap} with its 4-connected region, so a query
+ * between two regions can be rejected in O(1) instead of flooding the start's region.
+ *
+ * The labels follow wall edits as a {@link GridListener}:
+ * <ul>
+ *   <li>A removed wall joins its neighbours' regions. The smaller ones are relabelled
+ *       into the largest, so the cost is the size of the smaller regions.</li>
+ *   <li>An added wall may split its region. A search runs from each open neighbour in
+ *       turn, always growing the one that has seen the fewest cells. Searches that meet
+ *       are joined. A search that runs out of cells first is a split-off pocket and gets a
+ *       new label. Once all the searches have met, the region is still whole. If neither
+ *       happens within {@link #SPLIT_SEARCH_LIMIT} cells, the labels are marked stale.</li>
+ *   <li>Clearing the walls marks the labels stale too, and edits are ignored until then.
+ *       The next query relabels the whole grid once, so bulk edits such as generating a
+ *       maze cost one pass instead of one search per wall.</li>
+ * </ul>
+ *
+ * Memory is two ints and a byte per cell, for the labels and the split search's marks.
+ * All methods are synchronized, so queries may come from several threads while the grid
+ * is edited on another.
+ */
+public class ConnectedComponents implements GridListener {
+    public static final int WALL = -1;
+    private static final int SPLIT_SEARCH_LIMIT = 1 << 16;
+    private static final int RESOLVED = -1;
+
+    private final GridMap grid;
+    private final int[] labels;
+    private int[] sizes = new int[16];
+    private int nextLabel;
+    private int count;
+    private boolean stale = true;
+
+    // Split search scratch: per-cell owner stamped with a generation, and per-search queues
+    private final int[] seenStamp;
+    private final byte[] seenBy;
+    private int stamp;
+    private final int[][] queues = new int[4][64];
+    private final int[] heads = new int[4];
+    private final int[] tails = new int[4];
+    private final int[] group = new int[4];
+    private final int[] neighbors = new int[4];
+    private final int[] around = new int[4];
+    private int[] stack = new int[64];
+
+    public ConnectedComponents(GridMap grid) {
+        this.grid = grid;
+        this.labels = new int[grid.size()];
+        this.seenStamp = new int[grid.size()];
+        this.seenBy = new byte[grid.size()];
+        grid.addListener(this);
+    }
+
+    /** Whether a path between the two cells exists. A wall is connected to nothing. */
+    public synchronized boolean connected(int a, int b) {
+        if (stale) relabel();
+        return labels[a] != WALL && labels[a] == labels[b];
+    }
+
+    /** The region label of a cell, or {@link #WALL}. Labels change as the grid is edited. */
+    public synchronized int componentOf(int index) {
+        if (stale) relabel();
+        return labels[index];
+    }
+
+    /** The number of open cells in the cell's region, or 0 for a wall. */
+    public synchronized int sizeOf(int index) {
+        if (stale) relabel();
+        return labels[index] == WALL ? 0 : sizes[labels[index]];
+    }
+
+    public synchronized int componentCount() {
+        if (stale) relabel();
+        return count;
+    }
+
+    /**
+     * Brings the labels up to date and returns them, indexed by cell, for callers that
+     * read many labels while the grid is known not to change. The array is the live one:
+     * it must not be written, and it is only valid until the next wall edit.
+     */
+    synchronized int[] labels() {
+        if (stale) relabel();
+        return labels;
+    }
+
+    /** Stops listening to the grid. The index must not be used afterwards. */
+    public void close() {
+        grid.removeListener(this);
+    }
+
+    private void relabel() {
+        Arrays.fill(labels, WALL);
+        nextLabel = 0;
+        count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == WALL && !grid.isWall(i)) {
+                int label = newLabel();
+                sizes[label] = fill(i, WALL, label);
+            }
+        }
+        stale = false;
+    }
+
+    private int newLabel() {
+        if (nextLabel == sizes.length) sizes = Arrays.copyOf(sizes, sizes.length * 2);
+        count++;
+        return nextLabel++;
+    }
+
+    // Relabels the open cells labelled {@code from} that are connected to {@code seed}
+    private int fill(int seed, int from, int to) {
+        int top = 0;
+        int filled = 0;
+        labels[seed] = to;
+        stack[top++] = seed;
+        while (top > 0) {
+            int current = stack[--top];
+            filled++;
+            int n = grid.openNeighbors(current, around);
+            for (int i = 0; i < n; i++) {
+                int neighbor = around[i];
+                if (labels[neighbor] != from) continue;
+                labels[neighbor] = to;
+                if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = neighbor;
+            }
+        }
+        return filled;
+    }
+
+    @Override
+    public synchronized void wallChanged(int index, boolean wall) {
+        if (stale) return;
+        if (wall) {
+            wallAdded(index);
+        } else {
+            wallRemoved(index);
+        }
+    }
+
+    private void wallRemoved(int index) {
+        int n = grid.openNeighbors(index, neighbors);
+        int largest = WALL;
+        for (int i = 0; i < n; i++) {
+            int label = labels[neighbors[i]];
+            if (largest == WALL || sizes[label] > sizes[largest]) largest = label;
+        }
+        if (largest == WALL) {
+            largest = newLabel();
+            sizes[largest] = 0;
+        }
+        labels[index] = largest;
+        sizes[largest]++;
+        for (int i = 0; i < n; i++) {
+            int label = labels[neighbors[i]];
+            if (label != largest) {
+                sizes[largest] += fill(neighbors[i], label, largest);
+                count--;
+            }
+        }
+    }
+
+    private void wallAdded(int index) {
+        int label = labels[index];
+        labels[index] = WALL;
+        sizes[label]--;
+        int n = grid.openNeighbors(index, neighbors);
+        if (n == 0) {
+            count--;
+            return;
+        }
+        // Removing a cell with one open neighbour cannot disconnect anything
+        if (n == 1) return;
+
+        if (++stamp == 0) {
+            Arrays.fill(seenStamp, 0);
+            stamp = 1;
+        }
+        for (int s = 0; s < n; s++) {
+            int start = neighbors[s];
+            seenStamp[start] = stamp;
+            seenBy[start] = (byte) s;
+            queues[s][0] = start;
+            heads[s] = 0;
+            tails[s] = 1;
+            group[s] = s;
+        }
+
+        int groups = n;
+        int explored = 0;
+        while (groups > 1) {
+            int pick = smallestSearch(n);
+            int current = queues[pick][heads[pick]++];
+            if (++explored > SPLIT_SEARCH_LIMIT) {
+                stale = true;
+                return;
+            }
+            int m = grid.openNeighbors(current, around);
+            for (int i = 0; i < m; i++) {
+                int next = around[i];
+                if (seenStamp[next] == stamp) {
+                    int a = find(pick);
+                    int b = find(seenBy[next]);
+                    if (a != b) {
+                        group[b] = a;
+                        groups--;
+                    }
+                    continue;
+                }
+                seenStamp[next] = stamp;
+                seenBy[next] = (byte) pick;
+                if (tails[pick] == queues[pick].length) queues[pick] = Arrays.copyOf(queues[pick], tails[pick] * 2);
+                queues[pick][tails[pick]++] = next;
+            }
+            int root = find(pick);
+            if (groups > 1 && !hasWork(root, n)) {
+                // Ran out of cells without meeting the other searches: a region of its own
+                int split = newLabel();
+                sizes[split] = 0;
+                for (int s = 0; s < n; s++) {
+                    if (group[s] == RESOLVED || find(s) != root) continue;
+                    for (int k = 0; k < tails[s]; k++) {
+                        labels[queues[s][k]] = split;
+                    }
+                    sizes[split] += tails[s];
+                    heads[s] = tails[s] = 0;
+                }
+                for (int s = 0; s < n; s++) {
+                    if (group[s] != RESOLVED && tails[s] == 0) group[s] = RESOLVED;
+                }
+                sizes[label] -= sizes[split];
+                groups--;
+            }
+        }
+    }
+
+    // A search with cells left, from the unresolved group that has seen the fewest cells
+    private int smallestSearch(int n) {
+        int pick = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int s = 0; s < n; s++) {
+            if (heads[s] == tails[s] || group[s] == RESOLVED) continue;
+            int root = find(s);
+            int seen = 0;
+            for (int t = 0; t < n; t++) {
+                if (group[t] != RESOLVED && find(t) == root) seen += tails[t];
+            }
+            if (seen < fewest) {
+                fewest = seen;
+                pick = s;
+            }
+        }
+        return pick;
+    }
+
+    private boolean hasWork(int root, int n) {
+        for (int s = 0; s < n; s++) {
+            if (group[s] != RESOLVED && find(s) == root && heads[s] < tails[s]) return true;
+        }
+        return false;
+    }
+
+    private int find(int s) {
+        while (group[s] != s) {
+            s = group[s];
+        }
+        return s;
+    }
+
+    @Override
+    public synchronized void wallsCleared() {
+        stale = true;
+    }
+
+    @Override
+    public void costChanged(int index, int oldCost, int newCost) {
+        // Costs never change which cells are connected
+    }
+
+    @Override
+    public void costsCleared() {
+    }
+}
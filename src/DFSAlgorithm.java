@@ -4,29 +4,40 @@ public class DFSAlgorithm implements PathfindingAlgorithm {
     private Cell[][] grid;
     private Cell end;
     private Deque<Cell> stack; 
-    private boolean[][] closedSet;
+    private final SearchState state = new SearchState();
+    private int cols;
     private boolean finished;
     private Set<Cell> frontier;
     private Set<Cell> visitedSet;
     private List<Cell> path;
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+    private GridTopology.Movement movement = GridTopology.Movement.FOUR;
+    private GridTopology topology;
+    private final int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
 
     @Override
     public void initialize(Cell[][] grid, Cell start, Cell end) {
         this.grid = grid;
         this.end = end;
         int rows = grid.length;
-        int cols = grid[0].length;
+        this.cols = grid[0].length;
+        this.topology = new GridTopology(start.getGrid(), movement);
 
         this.stack = new ArrayDeque<>();
-        this.closedSet = new boolean[rows][cols];
         this.frontier = new HashSet<>();
         this.visitedSet = new HashSet<>();
         this.finished = false;
         this.path = null;
+        this.expanded = 0;
 
+        state.reset(rows * cols);
+        state.reach(start.getIndex(), 0, -1);
         stack.push(start);
         frontier.clear();
         frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
         visitedSet.clear();
     }
 
@@ -34,7 +45,7 @@ public class DFSAlgorithm implements PathfindingAlgorithm {
     public boolean step() {
         if (finished) return true;
 
-        Set<Cell> newFrontier = new HashSet<>();
+        Set<Cell> newFrontier = trackVisualization ? new HashSet<>() : null;
         if (stack.isEmpty()) {
             finished = true;
             path = null;
@@ -43,28 +54,33 @@ public class DFSAlgorithm implements PathfindingAlgorithm {
         }
 
         Cell current = stack.pop();
-        visitedSet.add(current);
+        if (trackVisualization) visitedSet.add(current);
+        if (listener != null) listener.cellClosed(current);
+        expanded++;
 
         if (current == end) {
             finished = true;
-            path = reconstructPath(end);
+            path = reconstructPath(current.getIndex());
             frontier.clear();
             return true;
         }
 
-        closedSet[current.getRow()][current.getCol()] = true;
+        int currentIndex = current.getIndex();
+        state.close(currentIndex);
 
-        for (Cell neighbor : getNeighbors(grid, current)) {
-            if (neighbor.isWall() || closedSet[neighbor.getRow()][neighbor.getCol()]) continue;
+        int count = topology.neighbors(currentIndex, neighbors);
+        for (int i = 0; i < count; i++) {
+            int index = neighbors[i];
+            if (state.isClosed(index)) continue;
 
-            if (!visitedSet.contains(neighbor)) {
-                neighbor.setParent(current);
-                stack.push(neighbor);
-                newFrontier.add(neighbor);
-            }
+            state.reach(index, state.getGCost(currentIndex) + 1, currentIndex);
+            Cell neighbor = grid[index / cols][index % cols];
+            stack.push(neighbor);
+            if (newFrontier != null) newFrontier.add(neighbor);
+            if (listener != null) listener.cellOpened(neighbor);
         }
 
-        frontier = newFrontier;
+        if (newFrontier != null) frontier = newFrontier;
         return finished;
     }
 
@@ -88,28 +104,38 @@ public class DFSAlgorithm implements PathfindingAlgorithm {
         return finished;
     }
 
-    private List<Cell> reconstructPath(Cell end) {
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        this.movement = movement;
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return true;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private List<Cell> reconstructPath(int endIndex) {
         List<Cell> result = new ArrayList<>();
-        for (Cell at = end; at != null; at = at.getParent()) {
-            result.add(at);
+        for (int at = endIndex; at != -1; at = state.getParent(at)) {
+            result.add(grid[at / cols][at % cols]);
         }
         Collections.reverse(result);
         return result;
     }
 
-    private List<Cell> getNeighbors(Cell[][] grid, Cell cell) {
-        int[] dRow = {-1, 1, 0, 0};
-        int[] dCol = {0, 0, -1, 1};
-        List<Cell> neighbors = new ArrayList<>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-        for (int i = 0; i < 4; i++) {
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
-            if (newRow >= 0 && newRow < grid.length && newCol >= 0 && newCol < grid[0].length) {
-                neighbors.add(grid[newRow][newCol]);
-            }
-        }
-        return neighbors;
-    }
 }
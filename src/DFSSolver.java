@@ -0,0 +1,45 @@
+import java.util.Arrays;
+
+public class DFSSolver implements GridSolver {
+    private final SearchState state = new SearchState();
+    private final int[] neighbors = new int[4];
+    private int expanded;
+    private int[] stack = new int[64];
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        state.reset(grid.size());
+        expanded = 0;
+
+        int top = 0;
+        state.reach(start, 0, -1);
+        stack[top++] = start;
+
+        while (top > 0) {
+            int current = stack[--top];
+            if (state.isClosed(current)) continue;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            state.close(current);
+            expanded++;
+            int count = grid.openNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (state.isClosed(neighbor)) continue;
+                // The latest push is popped first, so it owns the parent link
+                state.reach(neighbor, state.getGCost(current) + 1, current);
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = neighbor;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.*;
+
+/**
+ * Incremental replanning with D* Lite. The g and rhs values persist across wall edits
+ * and goal moves, so a replan only repairs the part of the search the change affected.
+ *
+ * The search is rooted at the (fixed) start and steers towards the end. This is the
+ * mirror image of the textbook formulation, which roots at the goal and lets the agent
+ * move. It lets the end move, as in chasing a moving target: {@link #moveEnd} adds the
+ * heuristic shift to the key modifier instead of re-keying the queue.
+ *
+ * One {@link #step()} processes one queued cell. After {@link #updateCell} or
+ * {@link #moveEnd}, {@link #isFinished()} turns false again and further steps repair the
+ * search.
+ */
+public class DStarLiteAlgorithm implements PathfindingAlgorithm {
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private Cell[][] cells;
+    private GridMap grid;
+    private int cols;
+    private int start;
+    private int end;
+    private int[] g;
+    private int[] rhs;
+    private int km;
+    private IndexedMinHeap openSet;
+    private final int[] neighbors = new int[4];
+    private final int[] around = new int[4];
+
+    private boolean finished;
+    private Set<Cell> frontier;
+    private Set<Cell> visitedSet;
+    private List<Cell> path;
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+
+    @Override
+    public void initialize(Cell[][] grid, Cell start, Cell end) {
+        this.cells = grid;
+        this.grid = start.getGrid();
+        this.cols = this.grid.getCols();
+        this.start = start.getIndex();
+        this.end = end.getIndex();
+        int size = this.grid.size();
+        this.g = new int[size];
+        this.rhs = new int[size];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        this.km = 0;
+        this.openSet = new IndexedMinHeap(size);
+        this.frontier = new HashSet<>();
+        this.visitedSet = new HashSet<>();
+        this.finished = false;
+        this.path = null;
+        this.expanded = 0;
+
+        rhs[this.start] = 0;
+        openSet.add(this.start, calculateKey(this.start));
+        frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
+    }
+
+    /** Repairs the search after the wall state of {@code cell} was changed on the grid. */
+    public void updateCell(Cell cell) {
+        int index = cell.getIndex();
+        updateVertex(index);
+        int count = allNeighbors(index);
+        for (int i = 0; i < count; i++) {
+            updateVertex(neighbors[i]);
+        }
+        replan();
+    }
+
+    /** Moves the end of the search to {@code newEnd}, keeping everything searched so far. */
+    public void moveEnd(Cell newEnd) {
+        int index = newEnd.getIndex();
+        km += heuristic(end, index);
+        end = index;
+        replan();
+    }
+
+    private void replan() {
+        finished = false;
+        path = null;
+        visitedSet.clear();
+        frontier.clear();
+    }
+
+    @Override
+    public boolean step() {
+        if (finished) return true;
+        if (openSet.isEmpty() || (openSet.peekKey() >= calculateKey(end) && rhs[end] == g[end])) {
+            finished = true;
+            frontier.clear();
+            path = g[end] >= INF ? null : extractPath();
+            return true;
+        }
+
+        long oldKey = openSet.peekKey();
+        int u = openSet.poll();
+        long newKey = calculateKey(u);
+        expanded++;
+        if (trackVisualization) visitedSet.add(cellAt(u));
+        if (listener != null) listener.cellClosed(cellAt(u));
+
+        int count = allNeighbors(u);
+        if (oldKey < newKey) {
+            openSet.add(u, newKey);
+        } else if (g[u] > rhs[u]) {
+            g[u] = rhs[u];
+            for (int i = 0; i < count; i++) {
+                updateVertex(neighbors[i]);
+            }
+        } else {
+            g[u] = INF;
+            updateVertex(u);
+            for (int i = 0; i < count; i++) {
+                updateVertex(neighbors[i]);
+            }
+        }
+        return false;
+    }
+
+    private void updateVertex(int u) {
+        if (u != start) {
+            int best = INF;
+            if (!grid.isWall(u)) {
+                int count = grid.openNeighbors(u, around);
+                for (int i = 0; i < count; i++) {
+                    best = Math.min(best, g[around[i]] + 1);
+                }
+            }
+            rhs[u] = Math.min(best, INF);
+        }
+        boolean inOpen = openSet.contains(u);
+        if (inOpen) openSet.remove(u);
+        if (g[u] != rhs[u]) {
+            openSet.add(u, calculateKey(u));
+            if (trackVisualization && !inOpen) frontier.add(cellAt(u));
+            if (listener != null && !inOpen) listener.cellOpened(cellAt(u));
+        }
+    }
+
+    private long calculateKey(int u) {
+        int min = Math.min(g[u], rhs[u]);
+        return ((long) (min + heuristic(u, end) + km) << 32) | min;
+    }
+
+    // Walk back from the end, always to the neighbour with the lowest g
+    private List<Cell> extractPath() {
+        List<Cell> result = new ArrayList<>();
+        int current = end;
+        result.add(cellAt(current));
+        while (current != start) {
+            int count = grid.openNeighbors(current, around);
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (best < 0 || g[around[i]] < g[best]) best = around[i];
+            }
+            if (best < 0 || g[best] >= g[current]) return null;
+            current = best;
+            result.add(cellAt(current));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public List<Cell> getPath() {
+        return path;
+    }
+
+    @Override
+    public Set<Cell> getFrontier() {
+        return new HashSet<>(frontier);
+    }
+
+    @Override
+    public Set<Cell> getVisited() {
+        return new HashSet<>(visitedSet);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    // Neighbours regardless of walls, whose rhs may depend on the given cell
+    private int allNeighbors(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int count = 0;
+        if (row > 0) neighbors[count++] = index - cols;
+        if (row < grid.getRows() - 1) neighbors[count++] = index + cols;
+        if (col > 0) neighbors[count++] = index - 1;
+        if (col < cols - 1) neighbors[count++] = index + 1;
+        return count;
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    private Cell cellAt(int index) {
+        return cells[index / cols][index % cols];
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Dijkstra's algorithm with a {@link BucketQueue} instead of a binary heap (Dial's
+ * algorithm). Move costs are small integers, at most {@link GridMap#MAX_COST}, so every
+ * queued key is within that of the last one polled and a ring of buckets is enough.
+ * Queue operations are O(1) instead of O(log n).
+ */
+public class DialSolver implements GridSolver {
+    private final SearchState state = new SearchState();
+    private final int[] neighbors = new int[4];
+    private int expanded;
+    private BucketQueue openSet = new BucketQueue(0, GridMap.MAX_COST);
+    private int capacity;
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        int size = grid.size();
+        if (capacity != size) {
+            openSet = new BucketQueue(size, GridMap.MAX_COST);
+            capacity = size;
+        } else {
+            openSet.clear();
+        }
+        state.reset(size);
+        expanded = 0;
+
+        state.reach(start, 0, -1);
+        openSet.add(start, 0);
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            expanded++;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            state.close(current);
+            int g = state.getGCost(current);
+            int count = grid.openNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                int tentativeG = g + grid.getCost(neighbor);
+                if (state.isClosed(neighbor) || tentativeG >= state.getGCost(neighbor)) continue;
+                boolean inOpen = openSet.contains(neighbor);
+                state.reach(neighbor, tentativeG, current);
+                if (inOpen) {
+                    openSet.decreaseKey(neighbor, tentativeG);
+                } else {
+                    openSet.add(neighbor, tentativeG);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills the first {@code grid.size()} entries of {@code distances} with the cost of the
+     * shortest path from {@code source} to each cell, or {@link SearchState#UNREACHED} for
+     * cells it cannot reach.
+     */
+    public void distancesFrom(GridMap grid, int source, int[] distances) {
+        solve(grid, source, -1);
+        for (int i = 0, size = grid.size(); i < size; i++) {
+            distances[i] = state.getGCost(i);
+        }
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
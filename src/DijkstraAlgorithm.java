@@ -3,32 +3,42 @@ import java.util.*;
 public class DijkstraAlgorithm implements PathfindingAlgorithm {
     private Cell[][] grid;
     private Cell end;
-    private PriorityQueue<Cell> openSet;
-    private boolean[][] closedSet;
+    private IndexedMinHeap openSet;
+    private final SearchState state = new SearchState();
+    private int cols;
     private boolean finished;
     private Set<Cell> frontier;
     private Set<Cell> visitedSet;
     private List<Cell> path;
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+    private GridTopology.Movement movement = GridTopology.Movement.FOUR;
+    private GridTopology topology;
+    private final int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
 
     @Override
     public void initialize(Cell[][] grid, Cell start, Cell end) {
         this.grid = grid;
         this.end = end;
         int rows = grid.length;
-        int cols = grid[0].length;
+        this.cols = grid[0].length;
+        this.topology = new GridTopology(start.getGrid(), movement);
 
-        // Priority queue based only on gCost
-        this.openSet = new PriorityQueue<>(Comparator.comparingInt(Cell::getGCost));
-        this.closedSet = new boolean[rows][cols];
+        // Priority queue keyed only on gCost
+        this.openSet = new IndexedMinHeap(rows * cols);
         this.frontier = new HashSet<>();
         this.visitedSet = new HashSet<>();
         this.finished = false;
         this.path = null;
+        this.expanded = 0;
 
-        start.setGCost(0);
-        openSet.add(start);
+        state.reset(rows * cols);
+        state.reach(start.getIndex(), 0, -1);
+        openSet.add(start.getIndex(), 0);
         frontier.clear();
         frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
         visitedSet.clear();
     }
 
@@ -36,7 +46,7 @@ public class DijkstraAlgorithm implements PathfindingAlgorithm {
     public boolean step() {
         if (finished) return true;
 
-        Set<Cell> newFrontier = new HashSet<>();
+        Set<Cell> newFrontier = trackVisualization ? new HashSet<>() : null;
         if (openSet.isEmpty()) {
             finished = true;
             path = null;
@@ -44,35 +54,44 @@ public class DijkstraAlgorithm implements PathfindingAlgorithm {
             return true;
         }
 
-        Cell current = openSet.poll();
-        visitedSet.add(current);
+        int currentIndex = openSet.poll();
+        Cell current = cellAt(currentIndex);
+        if (trackVisualization) visitedSet.add(current);
+        if (listener != null) listener.cellClosed(current);
+        expanded++;
 
         if (current == end) {
             finished = true;
-            path = reconstructPath(end);
+            path = reconstructPath(currentIndex);
             frontier.clear();
             return true;
         }
 
-        closedSet[current.getRow()][current.getCol()] = true;
+        state.close(currentIndex);
+        int g = state.getGCost(currentIndex);
 
-        for (Cell neighbor : getNeighbors(grid, current)) {
-            if (neighbor.isWall() || closedSet[neighbor.getRow()][neighbor.getCol()]) continue;
+        int count = topology.neighbors(currentIndex, neighbors);
+        for (int i = 0; i < count; i++) {
+            int index = neighbors[i];
+            if (state.isClosed(index)) continue;
+            int tentativeG = g + topology.moveCost(currentIndex, index);
 
-            int tentativeG = current.getGCost() + 1;
-            boolean inOpen = openSet.contains(neighbor);
+            boolean inOpen = openSet.contains(index);
 
-            if (!inOpen || tentativeG < neighbor.getGCost()) {
-                neighbor.setParent(current);
-                neighbor.setGCost(tentativeG);
+            if (!inOpen || tentativeG < state.getGCost(index)) {
+                state.reach(index, tentativeG, currentIndex);
                 if (!inOpen) {
-                    openSet.add(neighbor);
-                    newFrontier.add(neighbor);
+                    openSet.add(index, tentativeG);
+                    Cell neighbor = cellAt(index);
+                    if (newFrontier != null) newFrontier.add(neighbor);
+                    if (listener != null) listener.cellOpened(neighbor);
+                } else {
+                    openSet.decreaseKey(index, tentativeG);
                 }
             }
         }
 
-        frontier = newFrontier;
+        if (newFrontier != null) frontier = newFrontier;
         return finished;
     }
 
@@ -96,28 +115,42 @@ public class DijkstraAlgorithm implements PathfindingAlgorithm {
         return finished;
     }
 
-    private List<Cell> reconstructPath(Cell end) {
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        this.movement = movement;
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return true;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private Cell cellAt(int index) {
+        return grid[index / cols][index % cols];
+    }
+
+    private List<Cell> reconstructPath(int endIndex) {
         List<Cell> result = new ArrayList<>();
-        for (Cell at = end; at != null; at = at.getParent()) {
-            result.add(at);
+        for (int at = endIndex; at != -1; at = state.getParent(at)) {
+            result.add(cellAt(at));
         }
         Collections.reverse(result);
         return result;
     }
 
-    private List<Cell> getNeighbors(Cell[][] grid, Cell cell) {
-        int[] dRow = {-1, 1, 0, 0};
-        int[] dCol = {0, 0, -1, 1};
-        List<Cell> neighbors = new ArrayList<>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-        for (int i = 0; i < 4; i++) {
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
-            if (newRow >= 0 && newRow < grid.length && newCol >= 0 && newCol < grid[0].length) {
-                neighbors.add(grid[newRow][newCol]);
-            }
-        }
-        return neighbors;
-    }
 }
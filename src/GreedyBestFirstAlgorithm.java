@@ -3,31 +3,44 @@ import java.util.*;
 public class GreedyBestFirstAlgorithm implements PathfindingAlgorithm {
     private Cell[][] grid;
     private Cell end;
-    private PriorityQueue<Cell> openSet; 
-    private boolean[][] closedSet;
+    private IndexedMinHeap openSet;
+    private final SearchState state = new SearchState();
+    private int cols;
     private boolean finished;
     private Set<Cell> frontier;
     private Set<Cell> visitedSet;
     private List<Cell> path;
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+    private GridTopology.Movement movement = GridTopology.Movement.FOUR;
+    private GridTopology topology;
+    private final int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
+    private Heuristic estimate;
 
     @Override
     public void initialize(Cell[][] grid, Cell start, Cell end) {
         this.grid = grid;
         this.end = end;
         int rows = grid.length;
-        int cols = grid[0].length;
+        this.cols = grid[0].length;
+        this.topology = new GridTopology(start.getGrid(), movement);
+        this.estimate = topology.heuristic();
 
-        // Priority queue ordered by heuristic (distance to end)
-        this.openSet = new PriorityQueue<>(Comparator.comparingInt(c -> heuristic(c, end)));
-        this.closedSet = new boolean[rows][cols];
+        // Priority queue keyed by heuristic (distance to end)
+        this.openSet = new IndexedMinHeap(rows * cols);
         this.frontier = new HashSet<>();
         this.visitedSet = new HashSet<>();
         this.finished = false;
         this.path = null;
+        this.expanded = 0;
 
-        openSet.add(start);
+        state.reset(rows * cols);
+        state.reach(start.getIndex(), 0, -1);
+        openSet.add(start.getIndex(), heuristic(start, end));
         frontier.clear();
         frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
         visitedSet.clear();
     }
 
@@ -35,7 +48,7 @@ public class GreedyBestFirstAlgorithm implements PathfindingAlgorithm {
     public boolean step() {
         if (finished) return true;
 
-        Set<Cell> newFrontier = new HashSet<>();
+        Set<Cell> newFrontier = trackVisualization ? new HashSet<>() : null;
         if (openSet.isEmpty()) {
             finished = true;
             path = null;
@@ -43,29 +56,36 @@ public class GreedyBestFirstAlgorithm implements PathfindingAlgorithm {
             return true;
         }
 
-        Cell current = openSet.poll();
-        visitedSet.add(current);
+        int currentIndex = openSet.poll();
+        Cell current = cellAt(currentIndex);
+        if (trackVisualization) visitedSet.add(current);
+        if (listener != null) listener.cellClosed(current);
+        expanded++;
 
         if (current == end) {
             finished = true;
-            path = reconstructPath(end);
+            path = reconstructPath(currentIndex);
             frontier.clear();
             return true;
         }
 
-        closedSet[current.getRow()][current.getCol()] = true;
+        state.close(currentIndex);
 
-        for (Cell neighbor : getNeighbors(grid, current)) {
-            if (neighbor.isWall() || closedSet[neighbor.getRow()][neighbor.getCol()]) continue;
+        int count = topology.neighbors(currentIndex, neighbors);
+        for (int i = 0; i < count; i++) {
+            int index = neighbors[i];
+            if (state.isClosed(index)) continue;
 
-            if (!visitedSet.contains(neighbor)) {
-                neighbor.setParent(current);
-                openSet.add(neighbor);
-                newFrontier.add(neighbor);
+            if (!openSet.contains(index)) {
+                state.reach(index, state.getGCost(currentIndex) + 1, currentIndex);
+                Cell neighbor = cellAt(index);
+                openSet.add(index, heuristic(neighbor, end));
+                if (newFrontier != null) newFrontier.add(neighbor);
+                if (listener != null) listener.cellOpened(neighbor);
             }
         }
 
-        frontier = newFrontier;
+        if (newFrontier != null) frontier = newFrontier;
         return finished;
     }
 
@@ -89,32 +109,46 @@ public class GreedyBestFirstAlgorithm implements PathfindingAlgorithm {
         return finished;
     }
 
-    private List<Cell> reconstructPath(Cell end) {
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        this.movement = movement;
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return true;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private Cell cellAt(int index) {
+        return grid[index / cols][index % cols];
+    }
+
+    private List<Cell> reconstructPath(int endIndex) {
         List<Cell> result = new ArrayList<>();
-        for (Cell at = end; at != null; at = at.getParent()) {
-            result.add(at);
+        for (int at = endIndex; at != -1; at = state.getParent(at)) {
+            result.add(cellAt(at));
         }
         Collections.reverse(result);
         return result;
     }
 
-    private List<Cell> getNeighbors(Cell[][] grid, Cell cell) {
-        int[] dRow = {-1, 1, 0, 0};
-        int[] dCol = {0, 0, -1, 1};
-        List<Cell> neighbors = new ArrayList<>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-        for (int i = 0; i < 4; i++) {
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
-            if (newRow >= 0 && newRow < grid.length && newCol >= 0 && newCol < grid[0].length) {
-                neighbors.add(grid[newRow][newCol]);
-            }
-        }
-        return neighbors;
-    }
 
     private int heuristic(Cell a, Cell b) {
-        return Math.abs(a.getRow() - b.getRow()) + Math.abs(a.getCol() - b.getCol());
+        return estimate.estimate(a.getIndex(), b.getIndex());
     }
 }
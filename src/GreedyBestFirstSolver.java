@@ -0,0 +1,55 @@
+public class GreedyBestFirstSolver implements GridSolver {
+    private final SearchState state = new SearchState();
+    private final int[] neighbors = new int[4];
+    private int expanded;
+    private IndexedMinHeap openSet = new IndexedMinHeap(0);
+    private int capacity;
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        int size = grid.size();
+        if (capacity != size) {
+            openSet = new IndexedMinHeap(size);
+            capacity = size;
+        } else {
+            openSet.clear();
+        }
+        state.reset(size);
+        expanded = 0;
+
+        int cols = grid.getCols();
+        int endRow = end / cols;
+        int endCol = end % cols;
+
+        state.reach(start, 0, -1);
+        openSet.add(start, heuristic(start, cols, endRow, endCol));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            expanded++;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            state.close(current);
+            int count = grid.openNeighbors(current, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (state.isReached(neighbor)) continue;
+                state.reach(neighbor, state.getGCost(current) + 1, current);
+                openSet.add(neighbor, heuristic(neighbor, cols, endRow, endCol));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private static int heuristic(int index, int cols, int endRow, int endCol) {
+        int row = index / cols;
+        int col = index - row * cols;
+        return Math.abs(row - endRow) + Math.abs(col - endCol);
+    }
+}
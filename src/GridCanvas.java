@@ -0,0 +1,190 @@
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import javax.swing.*;
+
+/**
+ * Paints a grid of cells from one pixel per cell in a {@link BufferedImage}, scaled up to
+ * the current zoom. Setting a cell colour writes one int and repaints only that cell's
+ * screen area, so a step that changes a handful of cells costs the same on a 10x10 grid
+ * as on a 2000x2000 one.
+ *
+ * The mouse wheel zooms around the cursor and dragging with the middle button pans.
+ * Left and right clicks are reported to the {@link CellClickListener} as a cell position.
+ */
+public class GridCanvas extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final double MAX_SCALE = 64;
+    private static final double ZOOM_STEP = 1.25;
+    private static final double MIN_GRID_LINE_SCALE = 8;
+
+    public interface CellClickListener {
+        void cellClicked(int row, int col, boolean secondary);
+    }
+
+    private final int rows;
+    private final int cols;
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    // Screen pixels per cell and the screen position of cell (0, 0)
+    private double scale;
+    private double offsetX;
+    private double offsetY;
+    private boolean fitted;
+    private boolean viewMoved;
+
+    private CellClickListener clickListener;
+    private Point dragFrom;
+
+    public GridCanvas(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.image = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        setOpaque(true);
+        setBackground(new Color(128, 128, 128));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (SwingUtilities.isMiddleMouseButton(e)) {
+                    dragFrom = e.getPoint();
+                    return;
+                }
+                int row = rowAt(e.getY());
+                int col = colAt(e.getX());
+                if (clickListener != null && row >= 0 && row < rows && col >= 0 && col < cols) {
+                    clickListener.cellClicked(row, col, SwingUtilities.isRightMouseButton(e));
+                }
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragFrom == null) return;
+                offsetX += e.getX() - dragFrom.x;
+                offsetY += e.getY() - dragFrom.y;
+                dragFrom = e.getPoint();
+                viewMoved = true;
+                repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (SwingUtilities.isMiddleMouseButton(e)) dragFrom = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (!viewMoved) fitToView();
+            }
+        });
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    public void setCellClickListener(CellClickListener listener) {
+        this.clickListener = listener;
+    }
+
+    /** Sets the colour of one cell and repaints just that cell if it changed. */
+    public void setCellColor(int row, int col, Color color) {
+        int index = row * cols + col;
+        int rgb = color.getRGB() & 0xFFFFFF;
+        if (pixels[index] == rgb) return;
+        pixels[index] = rgb;
+        if (fitted) {
+            int x = (int) Math.floor(offsetX + col * scale);
+            int y = (int) Math.floor(offsetY + row * scale);
+            int size = (int) Math.ceil(scale) + 1;
+            repaint(x, y, size, size);
+        }
+    }
+
+    /** Zooms so the whole grid fits the component, centred, and keeps it fitted on resize. */
+    public void fitToView() {
+        viewMoved = false;
+        if (getWidth() <= 0 || getHeight() <= 0) return;
+        scale = Math.min((double) getWidth() / cols, (double) getHeight() / rows);
+        offsetX = (getWidth() - cols * scale) / 2;
+        offsetY = (getHeight() - rows * scale) / 2;
+        fitted = true;
+        repaint();
+    }
+
+    private void zoom(double factor, int anchorX, int anchorY) {
+        double fitScale = Math.min((double) getWidth() / cols, (double) getHeight() / rows);
+        double newScale = Math.max(Math.min(fitScale, 1), Math.min(MAX_SCALE, scale * factor));
+        // Keep the point under the cursor fixed
+        offsetX = anchorX - (anchorX - offsetX) * newScale / scale;
+        offsetY = anchorY - (anchorY - offsetY) * newScale / scale;
+        scale = newScale;
+        viewMoved = true;
+        repaint();
+    }
+
+    private int rowAt(int y) {
+        return (int) Math.floor((y - offsetY) / scale);
+    }
+
+    private int colAt(int x) {
+        return (int) Math.floor((x - offsetX) / scale);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(600, 600);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (!fitted) fitToView();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (!fitted) return;
+
+        // Only draw the cells that intersect the clip
+        int firstRow = Math.max(0, rowAt(clip.y));
+        int lastRow = Math.min(rows - 1, rowAt(clip.y + clip.height));
+        int firstCol = Math.max(0, colAt(clip.x));
+        int lastCol = Math.min(cols - 1, colAt(clip.x + clip.width));
+        if (firstRow > lastRow || firstCol > lastCol) return;
+
+        int x1 = (int) Math.floor(offsetX + firstCol * scale);
+        int y1 = (int) Math.floor(offsetY + firstRow * scale);
+        int x2 = (int) Math.floor(offsetX + (lastCol + 1) * scale);
+        int y2 = (int) Math.floor(offsetY + (lastRow + 1) * scale);
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(image, x1, y1, x2, y2, firstCol, firstRow, lastCol + 1, lastRow + 1, null);
+
+        if (scale >= MIN_GRID_LINE_SCALE) {
+            g2.setColor(Color.LIGHT_GRAY);
+            for (int r = firstRow; r <= lastRow + 1; r++) {
+                int y = (int) Math.floor(offsetY + r * scale);
+                g2.drawLine(x1, y, x2, y);
+            }
+            for (int c = firstCol; c <= lastCol + 1; c++) {
+                int x = (int) Math.floor(offsetX + c * scale);
+                g2.drawLine(x, y1, x, y2);
+            }
+        }
+    }
+}
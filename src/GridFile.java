@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary grid file, read and written through memory-mapped buffers. Opening a file maps
+ * it and builds a {@link GridMap} directly over the mapping, with no parsing. Even a
+ * 16k x 16k map opens in milliseconds, and pages are only read as a search touches them.
+ *
+ * Layout, little-endian:
+ * <pre>
+ *   0  int   magic "PFGR"
+ *   4  int   format version (1)
+ *   8  int   rows
+ *  12  int   cols
+ *  16  int   flags (bit 0: per-cell costs present)
+ *  20  12 bytes reserved, zero
+ *  32  long[ceil(rows * cols / 64)]  wall bitset, bit (i & 63) of word (i >>> 6) for cell i
+ *  ..  byte[rows * cols]             costs 1-255, only if flag bit 0 is set
+ * </pre>
+ */
+public final class GridFile {
+    private static final int MAGIC = 0x52474650; // "PFGR" read as a little-endian int
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int FLAG_COSTS = 1;
+
+    private GridFile() {}
+
+    /**
+     * Maps a grid file copy-on-write: the grid can be edited, but edits stay in memory and
+     * never reach the file.
+     */
+    public static GridMap open(Path path) throws IOException {
+        return open(path, FileChannel.MapMode.PRIVATE);
+    }
+
+    /**
+     * Maps a grid file with the given mode. With {@link FileChannel.MapMode#READ_WRITE},
+     * wall and cost edits are written straight through to the file. With
+     * {@link FileChannel.MapMode#READ_ONLY}, any edit throws.
+     */
+    public static GridMap open(Path path, FileChannel.MapMode mode) throws IOException {
+        // Copy-on-write mappings also need a writable channel, though the file is never changed
+        boolean write = mode != FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = write
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated grid file header: " + path);
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a grid file: " + path);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported grid file version " + header.getInt(4) + ": " + path);
+            }
+            int rows = header.getInt(8);
+            int cols = header.getInt(12);
+            boolean hasCosts = (header.getInt(16) & FLAG_COSTS) != 0;
+            int words;
+            try {
+                words = GridMap.wordCount(rows, cols);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Bad grid dimensions in " + path + ": " + e.getMessage());
+            }
+            long wallBytes = (long) words * Long.BYTES;
+            long costBytes = hasCosts ? (long) rows * cols : 0;
+            if (channel.size() < HEADER_BYTES + wallBytes + costBytes) {
+                throw new IOException("Truncated grid file: " + path);
+            }
+
+            // A mapping stays valid after its channel is closed
+            MappedByteBuffer wallMap = channel.map(mode, HEADER_BYTES, wallBytes);
+            LongBuffer walls = wallMap.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            ByteBuffer costs = hasCosts ? channel.map(mode, HEADER_BYTES + wallBytes, costBytes) : null;
+            return new GridMap(rows, cols, walls, costs);
+        }
+    }
+
+    /**
+     * Writes a grid to {@code path}, replacing any existing file. The data goes to a
+     * temporary file that is then moved into place. That keeps a grid mapped from the
+     * old file valid, even when it is the grid being saved.
+     */
+    public static void write(GridMap grid, Path path) throws IOException {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int words = GridMap.wordCount(rows, cols);
+        long wallBytes = (long) words * Long.BYTES;
+        ByteBuffer costs = grid.costBytes();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, FORMAT_VERSION);
+            header.putInt(8, rows);
+            header.putInt(12, cols);
+            header.putInt(16, costs != null ? FLAG_COSTS : 0);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+
+            MappedByteBuffer wallMap = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, wallBytes);
+            LongBuffer source = grid.wallWords();
+            source.limit(words).position(0);
+            wallMap.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(source);
+            wallMap.force();
+
+            if (costs != null) {
+                MappedByteBuffer costMap = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + wallBytes,
+                    (long) rows * cols);
+                costs.limit(rows * cols).position(0);
+                costMap.put(costs);
+                costMap.force();
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts writing a grid without costs one row at a time, for maps generated row by row
+     * that need not fit in memory. The file only replaces {@code path} once all rows are
+     * written and the writer is closed.
+     */
+    public static RowWriter writeRows(Path path, int rows, int cols) throws IOException {
+        GridMap.wordCount(rows, cols);
+        return new RowWriter(path, rows, cols);
+    }
+
+    /** Packs rows of wall bits into the wall bitset and writes it out sequentially. */
+    public static final class RowWriter implements AutoCloseable {
+        private final Path path;
+        private final Path temp;
+        private final int rows;
+        private final int cols;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        // Bits not yet written, filled from bit 0 up
+        private long word;
+        private int bits;
+        private int rowsWritten;
+
+        private RowWriter(Path path, int rows, int cols) throws IOException {
+            this.path = path;
+            this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.rows = rows;
+            this.cols = cols;
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(cols).putInt(0);
+            buffer.position(HEADER_BYTES);
+        }
+
+        /** Appends the next row: bit c of {@code walls[c >>> 6]} is set if column c is a wall. */
+        public void writeRow(long[] walls) throws IOException {
+            if (rowsWritten == rows) {
+                throw new IllegalStateException("All " + rows + " rows are already written");
+            }
+            for (int c = 0; c < cols; c += 64) {
+                int count = Math.min(64, cols - c);
+                long chunk = walls[c >>> 6];
+                if (count < 64) chunk &= (1L << count) - 1;
+                append(chunk, count);
+            }
+            rowsWritten++;
+        }
+
+        private void append(long chunk, int count) throws IOException {
+            word |= chunk << bits;
+            if (bits + count < 64) {
+                bits += count;
+                return;
+            }
+            put(word);
+            // The shift by 64 when bits is 0 would keep the chunk, so the carry is masked out
+            word = bits == 0 ? 0 : chunk >>> (64 - bits);
+            bits = bits + count - 64;
+        }
+
+        private void put(long value) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.putLong(value);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Finishes the file and moves it into place. If not every row was written, the
+         * partial file is deleted and an exception thrown.
+         */
+        @Override
+        public void close() throws IOException {
+            boolean complete = false;
+            try {
+                if (rowsWritten < rows) {
+                    throw new IOException("Only " + rowsWritten + " of " + rows + " rows written to " + path);
+                }
+                if (bits > 0) put(word);
+                flush();
+                channel.force(false);
+                complete = true;
+            } finally {
+                channel.close();
+                if (!complete) Files.deleteIfExists(temp);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * Receives wall and cost edits made to a {@link GridMap}. Listeners are called on the
+ * thread that made the edit, after the grid and its version have been updated.
+ */
+public interface GridListener {
+    void wallChanged(int index, boolean wall);
+
+    /** Called after every wall on the grid has been cleared at once. */
+    void wallsCleared();
+
+    void costChanged(int index, int oldCost, int newCost);
+
+    /** Called after every cell's cost has been reset to 1 at once. */
+    void costsCleared();
+}
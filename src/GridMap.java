@@ -0,0 +1,210 @@
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Compact grid of walls stored as a bitset, with each cell addressed by a single
+ * int index (row * cols + col). This is the model the solver core runs on;
+ * {@link Cell} objects are only a view over it for the GUI.
+ *
+ * The bitset lives in a {@link LongBuffer}, so a grid can run directly on a memory-mapped
+ * file (see {@link GridFile}) as well as on the heap. Cells can optionally carry a
+ * movement cost of 1 to 255, one byte per cell. Without costs every cell costs 1.
+ */
+public class GridMap {
+    public static final int MAX_COST = 255;
+
+    private final int rows;
+    private final int cols;
+    private final LongBuffer walls;
+    private ByteBuffer costs;
+    private long version;
+    private volatile GridListener[] listeners = new GridListener[0];
+
+    public GridMap(int rows, int cols) {
+        this(rows, cols, LongBuffer.wrap(new long[wordCount(rows, cols)]), null);
+    }
+
+    /**
+     * Creates a grid over existing storage: {@code walls} holds one bit per cell, and
+     * {@code costs}, if not null, one unsigned byte per cell. Neither is copied.
+     */
+    public GridMap(int rows, int cols, LongBuffer walls, ByteBuffer costs) {
+        int words = wordCount(rows, cols);
+        if (walls.capacity() < words) {
+            throw new IllegalArgumentException("Wall storage holds " + walls.capacity() + " words, need " + words);
+        }
+        if (costs != null && costs.capacity() < rows * cols) {
+            throw new IllegalArgumentException("Cost storage holds " + costs.capacity() + " bytes, need " + rows * cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = walls;
+        this.costs = costs;
+    }
+
+    /** Number of 64-bit words in the wall bitset of a rows x cols grid. */
+    public static int wordCount(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: " + rows + "x" + cols);
+        }
+        return (int) (((long) rows * cols + 63) >>> 6);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int size() { return rows * cols; }
+
+    /** Returns a counter that changes every time a wall or a cost changes. */
+    public long getVersion() { return version; }
+
+    public int index(int row, int col) { return row * cols + col; }
+    public int row(int index) { return index / cols; }
+    public int col(int index) { return index % cols; }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public boolean isWall(int index) {
+        return (walls.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public boolean isWall(int row, int col) {
+        return isWall(index(row, col));
+    }
+
+    public void setWall(int index, boolean wall) {
+        if (isWall(index) == wall) return;
+        int word = index >>> 6;
+        if (wall) {
+            walls.put(word, walls.get(word) | (1L << index));
+        } else {
+            walls.put(word, walls.get(word) & ~(1L << index));
+        }
+        version++;
+        for (GridListener listener : listeners) {
+            listener.wallChanged(index, wall);
+        }
+    }
+
+    public void setWall(int row, int col, boolean wall) {
+        setWall(index(row, col), wall);
+    }
+
+    public void clearWalls() {
+        if (walls.hasArray()) {
+            java.util.Arrays.fill(walls.array(), walls.arrayOffset(), walls.arrayOffset() + walls.capacity(), 0L);
+        } else {
+            for (int i = 0; i < walls.capacity(); i++) {
+                walls.put(i, 0L);
+            }
+        }
+        version++;
+        for (GridListener listener : listeners) {
+            listener.wallsCleared();
+        }
+    }
+
+    public boolean hasCosts() { return costs != null; }
+
+    /** Returns the cost of moving into a cell, from 1 to {@link #MAX_COST}. */
+    public int getCost(int index) {
+        return costs == null ? 1 : costs.get(index) & 0xFF;
+    }
+
+    /** Sets the cost of moving into a cell, allocating per-cell costs on first use. */
+    public void setCost(int index, int cost) {
+        if (cost < 1 || cost > MAX_COST) {
+            throw new IllegalArgumentException("Cost must be between 1 and " + MAX_COST + ": " + cost);
+        }
+        if (costs == null) {
+            if (cost == 1) return;
+            costs = ByteBuffer.allocate(size());
+            for (int i = 0; i < size(); i++) {
+                costs.put(i, (byte) 1);
+            }
+        }
+        int oldCost = getCost(index);
+        if (oldCost == cost) return;
+        costs.put(index, (byte) cost);
+        version++;
+        for (GridListener listener : listeners) {
+            listener.costChanged(index, oldCost, cost);
+        }
+    }
+
+    public void setCost(int row, int col, int cost) {
+        setCost(index(row, col), cost);
+    }
+
+    /** Resets every cell's cost to 1. */
+    public void clearCosts() {
+        if (costs == null) return;
+        for (int i = 0; i < size(); i++) {
+            costs.put(i, (byte) 1);
+        }
+        version++;
+        for (GridListener listener : listeners) {
+            listener.costsCleared();
+        }
+    }
+
+    /** The wall bitset, one bit per cell in index order, for bulk copies. */
+    LongBuffer wallWords() {
+        return walls.duplicate();
+    }
+
+    /** The per-cell costs, or null if every cell costs 1. */
+    ByteBuffer costBytes() {
+        return costs == null ? null : costs.duplicate();
+    }
+
+    public synchronized void addListener(GridListener listener) {
+        GridListener[] current = listeners;
+        GridListener[] updated = java.util.Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(GridListener listener) {
+        GridListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                GridListener[] updated = new GridListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the open 4-connected neighbors of a cell into {@code out} (which must hold at
+     * least four entries) in up, down, left, right order and returns how many were written.
+     */
+    public int openNeighbors(int index, int[] out) {
+        int row = index / cols;
+        int col = index - row * cols;
+        int count = 0;
+        if (row > 0 && !isWall(index - cols)) out[count++] = index - cols;
+        if (row < rows - 1 && !isWall(index + cols)) out[count++] = index + cols;
+        if (col > 0 && !isWall(index - 1)) out[count++] = index - 1;
+        if (col < cols - 1 && !isWall(index + 1)) out[count++] = index + 1;
+        return count;
+    }
+
+    /** Creates a Cell[][] view backed by this grid, for the GUI and the step-based algorithms. */
+    public Cell[][] createCellView() {
+        Cell[][] cells = new Cell[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                cells[r][c] = new Cell(this, r, c);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Run-to-completion pathfinder over a {@link GridMap}. Implementations keep their search
+ * state in primitive arrays that are reused between queries, so a solver instance must
+ * not be shared between threads.
+ */
+public interface GridSolver {
+    /** Returns the path as cell indices from start to end inclusive, or null if there is none. */
+    int[] solve(GridMap grid, int start, int end);
+
+    /** Returns how many cells the last call to {@link #solve} expanded. */
+    int getNodesExpanded();
+}
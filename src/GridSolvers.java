@@ -0,0 +1,30 @@
+import java.util.Set;
+
+/**
+ * Creates {@link GridSolver}s by the same algorithm names the GUI uses.
+ */
+public final class GridSolvers {
+    /** The names {@link #create} accepts, to check one without allocating a solver. */
+    public static final Set<String> NAMES = Set.of("A*", "Dijkstra", "Dial", "BFS", "Bit BFS", "DFS", "Greedy",
+        "Bidirectional", "Bidirectional A*", "Bidirectional Dijkstra", "JPS", "HPA*");
+
+    private GridSolvers() {}
+
+    public static GridSolver create(String algorithm) {
+        return switch (algorithm) {
+            case "A*" -> new AStarSolver();
+            case "Dijkstra" -> new DijkstraSolver();
+            case "Dial" -> new DialSolver();
+            case "BFS" -> new BFSSolver();
+            case "Bit BFS" -> new BitParallelBFSSolver();
+            case "DFS" -> new DFSSolver();
+            case "Greedy" -> new GreedyBestFirstSolver();
+            case "Bidirectional" -> new BidirectionalSearchSolver();
+            case "Bidirectional A*" -> new BidirectionalAStar(true);
+            case "Bidirectional Dijkstra" -> new BidirectionalAStar(false);
+            case "JPS" -> new JumpPointSearchAlgorithm();
+            case "HPA*" -> new HierarchicalPathfinder();
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        };
+    }
+}
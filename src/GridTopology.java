@@ -0,0 +1,107 @@
+/**
+ * How a search may move between the cells of a {@link GridMap}: which cells are
+ * neighbours and what each move costs. Neighbours are written into a caller-owned array,
+ * so expanding a cell allocates nothing.
+ *
+ * With {@link Movement#FOUR} a move costs the cost of the cell entered, as everywhere
+ * else in the project. With diagonal movement, a straight move costs
+ * {@link #STRAIGHT_COST} times the cell cost and a diagonal one {@link #DIAGONAL_COST}
+ * times. 99/70 is within 0.005% of the square root of 2, so path costs stay integers
+ * and octile lengths come out as cost / 70.
+ *
+ * Neighbours come in a fixed order: up, down, left, right, then up-left, up-right,
+ * down-left, down-right. The first four match {@link GridMap#openNeighbors}.
+ */
+public final class GridTopology {
+    public static final int MAX_NEIGHBORS = 8;
+    public static final int STRAIGHT_COST = 70;
+    public static final int DIAGONAL_COST = 99;
+
+    public enum Movement {
+        /** Up, down, left and right only. */
+        FOUR,
+        /** Diagonals as well, even squeezing between two walls that meet at a corner. */
+        EIGHT,
+        /** Diagonals unless both cells beside the move are walls. */
+        EIGHT_NO_SQUEEZE,
+        /** Diagonals only when both cells beside the move are open, as in MovingAI maps. */
+        EIGHT_NO_CORNER_CUTTING
+    }
+
+    private final GridMap grid;
+    private final Movement movement;
+    private final int rows;
+    private final int cols;
+    private final int straightCost;
+    private final int diagonalCost;
+    // Index steps in neighbour order, then the row and column steps that bound them
+    private final int[] offsets;
+    private static final int[] ROW_STEPS = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] COL_STEPS = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    public GridTopology(GridMap grid, Movement movement) {
+        this.grid = grid;
+        this.movement = movement;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.straightCost = movement == Movement.FOUR ? 1 : STRAIGHT_COST;
+        this.diagonalCost = movement == Movement.FOUR ? 1 : DIAGONAL_COST;
+        this.offsets = new int[MAX_NEIGHBORS];
+        for (int i = 0; i < MAX_NEIGHBORS; i++) {
+            offsets[i] = ROW_STEPS[i] * cols + COL_STEPS[i];
+        }
+    }
+
+    public GridMap getGrid() { return grid; }
+    public Movement getMovement() { return movement; }
+    public int getStraightCost() { return straightCost; }
+    public int getDiagonalCost() { return diagonalCost; }
+
+    /**
+     * Writes the open cells reachable in one move from {@code index} into {@code out},
+     * which must hold {@link #MAX_NEIGHBORS} entries, and returns how many there are.
+     */
+    public int neighbors(int index, int[] out) {
+        int row = index / cols;
+        int col = index - row * cols;
+        boolean up = row > 0 && !grid.isWall(index + offsets[0]);
+        boolean down = row < rows - 1 && !grid.isWall(index + offsets[1]);
+        boolean left = col > 0 && !grid.isWall(index + offsets[2]);
+        boolean right = col < cols - 1 && !grid.isWall(index + offsets[3]);
+        int count = 0;
+        if (up) out[count++] = index + offsets[0];
+        if (down) out[count++] = index + offsets[1];
+        if (left) out[count++] = index + offsets[2];
+        if (right) out[count++] = index + offsets[3];
+        if (movement == Movement.FOUR) return count;
+
+        if (row > 0 && col > 0 && allowed(up, left) && !grid.isWall(index + offsets[4])) out[count++] = index + offsets[4];
+        if (row > 0 && col < cols - 1 && allowed(up, right) && !grid.isWall(index + offsets[5])) out[count++] = index + offsets[5];
+        if (row < rows - 1 && col > 0 && allowed(down, left) && !grid.isWall(index + offsets[6])) out[count++] = index + offsets[6];
+        if (row < rows - 1 && col < cols - 1 && allowed(down, right) && !grid.isWall(index + offsets[7])) out[count++] = index + offsets[7];
+        return count;
+    }
+
+    // Whether a diagonal move may pass the two cells beside it
+    private boolean allowed(boolean first, boolean second) {
+        return switch (movement) {
+            case EIGHT -> true;
+            case EIGHT_NO_SQUEEZE -> first || second;
+            default -> first && second;
+        };
+    }
+
+    /** The cost of moving from {@code from} into the neighbouring cell {@code to}. */
+    public int moveCost(int from, int to) {
+        int cost = grid.getCost(to);
+        if (movement == Movement.FOUR) return cost;
+        boolean diagonal = from / cols != to / cols && from % cols != to % cols;
+        return cost * (diagonal ? diagonalCost : straightCost);
+    }
+
+    /** The tightest wall-free lower bound for this movement: Manhattan or octile distance. */
+    public Heuristic heuristic() {
+        if (movement == Movement.FOUR) return new ManhattanHeuristic(cols);
+        return new OctileHeuristic(cols, straightCost, diagonalCost);
+    }
+}
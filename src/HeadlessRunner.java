@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs a search to completion without a display and prints timing, expansions and path
+ * length for each run. All runs share one solver, so the first also pays for allocating
+ * the search arrays and for any preprocessing, such as HPA*'s or JPS's, and the later
+ * ones measure the search alone. Step mode runs the algorithm through an
+ * {@link InstrumentedAlgorithm}, which also reports the peak open-set size and emits
+ * Flight Recorder events when started with -XX:StartFlightRecording.
+ *
+ * Usage: java HeadlessRunner [--algorithm A*] [--rows 512] [--cols 512] [--walls 0.3]
+ *        [--costs 1] [--seed 42] [--map grid.txt] [--runs 5] [--mode step|solver|distances]
+ *        [--save out.grid] [--landmarks 0] [--maze scattered] [--components false]
+ *
+ * A text map has one line per row: '#' is a wall, 'S' the start, 'E' the end and
+ * anything else open. A map ending in ".grid" is a binary {@link GridFile}, which is
+ * memory-mapped instead of parsed, and one ending in ".map" is a MovingAI map. For both,
+ * start and end go where the GUI puts them. Without a
+ * map a maze is generated with MazeGenerator, with the same start and end, and with
+ * terrain costs up to --costs if that is above 1. --maze picks the generator's
+ * {@link MazeGenerator.Algorithm}, in lower case. --save writes
+ * the grid as a ".grid" file before the runs.
+ *
+ * With --components true the grid's connected regions are labelled with
+ * {@link ConnectedComponents} before the runs. When start and end lie in different
+ * regions every run then reports the end unreachable without searching. The labels take
+ * 9 bytes per cell of heap, so they are off by default to keep memory-mapped maps cheap.
+ *
+ * With --landmarks above 0, A* uses a {@link LandmarkHeuristic} with that many
+ * landmarks, built once before the runs.
+ *
+ * --mode distances ignores the algorithm and end, and labels every cell with its distance
+ * from the start using {@link ParallelBFSAlgorithm}.
+ */
+public class HeadlessRunner {
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+        Map.entry("algorithm", "A*"),
+        Map.entry("rows", "512"),
+        Map.entry("cols", "512"),
+        Map.entry("walls", "0.3"),
+        Map.entry("costs", "1"),
+        Map.entry("seed", "42"),
+        Map.entry("map", ""),
+        Map.entry("runs", "5"),
+        Map.entry("mode", "step"),
+        Map.entry("save", ""),
+        Map.entry("landmarks", "0"),
+        Map.entry("maze", "scattered"),
+        Map.entry("components", "false")
+    );
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        String algorithm = options.get("algorithm");
+        int runs = Integer.parseInt(options.get("runs"));
+
+        long loadStart = System.nanoTime();
+        GridMap grid;
+        int[] endpoints;
+        if (options.get("map").isEmpty()) {
+            grid = new GridMap(Integer.parseInt(options.get("rows")), Integer.parseInt(options.get("cols")));
+            endpoints = generate(grid, MazeGenerator.Algorithm.valueOf(options.get("maze").toUpperCase()),
+                Double.parseDouble(options.get("walls")), Integer.parseInt(options.get("costs")),
+                Long.parseLong(options.get("seed")));
+        } else if (options.get("map").endsWith(".grid")) {
+            grid = GridFile.open(Path.of(options.get("map")));
+            endpoints = defaultEndpoints(grid);
+        } else if (options.get("map").endsWith(".map")) {
+            grid = MovingAiReader.readMap(Path.of(options.get("map")));
+            endpoints = defaultEndpoints(grid);
+        } else {
+            List<String> lines = Files.readAllLines(Path.of(options.get("map")));
+            grid = new GridMap(lines.size(), lines.stream().mapToInt(String::length).max().orElse(0));
+            endpoints = load(grid, lines);
+        }
+        int start = endpoints[0];
+        int end = endpoints[1];
+        System.out.printf("grid %dx%d, %s, start (%d,%d), end (%d,%d), ready in %.1f ms%n",
+            grid.getRows(), grid.getCols(), algorithm,
+            grid.row(start), grid.col(start), grid.row(end), grid.col(end),
+            (System.nanoTime() - loadStart) / 1e6);
+        if (!options.get("save").isEmpty()) {
+            GridFile.write(grid, Path.of(options.get("save")));
+        }
+
+        if (options.get("mode").equals("distances")) {
+            runDistances(grid, start, runs);
+            return;
+        }
+
+        ConnectedComponents components = null;
+        if (Boolean.parseBoolean(options.get("components"))) {
+            long labelStart = System.nanoTime();
+            components = new ConnectedComponents(grid);
+            System.out.printf("%d connected regions, labelled in %.1f ms%n", components.componentCount(),
+                (System.nanoTime() - labelStart) / 1e6);
+        }
+
+        LandmarkHeuristic landmarks = null;
+        if (Integer.parseInt(options.get("landmarks")) > 0) {
+            long buildStart = System.nanoTime();
+            landmarks = new LandmarkHeuristic(grid, Integer.parseInt(options.get("landmarks")));
+            System.out.printf("%d landmarks, %.1f KB each, built in %.1f ms%n", landmarks.getLandmarkCount(),
+                landmarks.bytesPerLandmark() / 1024.0, (System.nanoTime() - buildStart) / 1e6);
+        }
+
+        // Created once, so runs after the first measure a warm solver with its arrays and any
+        // preprocessing, such as HPA*'s abstract graph, already in place
+        Cell[][] cells = null;
+        GridSolver solver = null;
+        InstrumentedAlgorithm algo = null;
+        if (options.get("mode").equals("solver")) {
+            solver = GridSolvers.create(algorithm);
+            if (solver instanceof AStarSolver) ((AStarSolver) solver).setHeuristic(landmarks);
+        } else {
+            cells = grid.createCellView();
+            algo = PathfindingAlgorithms.createInstrumented(algorithm);
+            if (algo.getDelegate() instanceof AStarAlgorithm) ((AStarAlgorithm) algo.getDelegate()).setHeuristic(landmarks);
+        }
+        for (int run = 1; run <= runs; run++) {
+            long begin = System.nanoTime();
+            if (components != null && !components.connected(start, end)) {
+                System.out.printf("run %d: %.2f ms, end unreachable from start%n", run, (System.nanoTime() - begin) / 1e6);
+                continue;
+            }
+            int[] path;
+            int expanded;
+            long peakOpen = -1;
+            if (solver != null) {
+                path = solver.solve(grid, start, end);
+                expanded = solver.getNodesExpanded();
+            } else {
+                algo.initialize(cells, cells[grid.row(start)][grid.col(start)], cells[grid.row(end)][grid.col(end)]);
+                List<Cell> result = algo.solve();
+                path = result == null ? null : result.stream().mapToInt(Cell::getIndex).toArray();
+                expanded = algo.getNodesExpanded();
+                peakOpen = algo.getStats().getPeakOpen();
+            }
+            long cost = 0;
+            for (int i = 1; path != null && i < path.length; i++) {
+                cost += grid.getCost(path[i]);
+            }
+            double millis = (System.nanoTime() - begin) / 1e6;
+            System.out.printf("run %d: %.2f ms, %d expanded, %s%s%n", run, millis, expanded,
+                peakOpen < 0 ? "" : "peak open " + peakOpen + ", ",
+                path == null ? "no path found" : "path length " + (path.length - 1) + ", cost " + cost);
+        }
+    }
+
+    private static void runDistances(GridMap grid, int start, int runs) {
+        ParallelBFSAlgorithm bfs = new ParallelBFSAlgorithm();
+        for (int run = 1; run <= runs; run++) {
+            long begin = System.nanoTime();
+            bfs.initialize(grid, start, -1);
+            int levels = 0;
+            while (!bfs.step()) {
+                levels++;
+            }
+            double millis = (System.nanoTime() - begin) / 1e6;
+            System.out.printf("run %d: %.2f ms, %d cells reached, farthest %d steps%n", run, millis,
+                bfs.getNodesExpanded(), levels);
+        }
+    }
+
+    private static int[] generate(GridMap grid, MazeGenerator.Algorithm algorithm, double wallProbability, int maxCost,
+            long seed) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        Cell[][] cells = grid.createCellView();
+        Cell start = cells[rows / 2][Math.min(1, cols - 1)];
+        Cell end = cells[rows / 2][Math.max(0, cols - 2)];
+        start.setStart(true);
+        end.setEnd(true);
+        MazeGenerator generator = new MazeGenerator(rows, cols, wallProbability, seed);
+        generator.generate(cells, algorithm);
+        generator.generateTerrain(cells, maxCost);
+        return new int[] {start.getIndex(), end.getIndex()};
+    }
+
+    // Where the GUI puts start and end, cleared of walls
+    private static int[] defaultEndpoints(GridMap grid) {
+        int start = grid.index(grid.getRows() / 2, Math.min(1, grid.getCols() - 1));
+        int end = grid.index(grid.getRows() / 2, Math.max(0, grid.getCols() - 2));
+        grid.setWall(start, false);
+        grid.setWall(end, false);
+        return new int[] {start, end};
+    }
+
+    private static int[] load(GridMap grid, List<String> lines) {
+        int start = -1;
+        int end = -1;
+        for (int r = 0; r < lines.size(); r++) {
+            String line = lines.get(r);
+            for (int c = 0; c < line.length(); c++) {
+                switch (line.charAt(c)) {
+                    case '#' -> grid.setWall(r, c, true);
+                    case 'S' -> start = grid.index(r, c);
+                    case 'E' -> end = grid.index(r, c);
+                    default -> { }
+                }
+            }
+        }
+        if (start < 0 || end < 0) {
+            throw new IllegalArgumentException("Map must contain an 'S' start and an 'E' end");
+        }
+        return new int[] {start, end};
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (key == null || !DEFAULTS.containsKey(key) || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown or incomplete option: " + args[i]);
+            }
+            options.put(key, args[++i]);
+        }
+        return options;
+    }
+}
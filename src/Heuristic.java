@@ -0,0 +1,9 @@
+/**
+ * A lower bound on the cost of the cheapest path between two cells, used by A* to order
+ * its queue. An estimate must never exceed the true cost, or A* may return a longer path.
+ * It should also be consistent: the estimate from a cell is at most the cost of entering
+ * a neighbour plus the estimate from that neighbour.
+ */
+public interface Heuristic {
+    int estimate(int from, int to);
+}
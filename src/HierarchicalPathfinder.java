@@ -0,0 +1,418 @@
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*). The grid is split into square clusters. Wherever two
+ * neighbouring clusters share a run of open border cells, one or two entrance cells are
+ * placed on each side. Distances between the entrances of each cluster are precomputed
+ * with {@link DijkstraSolver} on a copy of that cluster.
+ *
+ * A query links start and end to the entrances of their clusters, searches the small
+ * abstract graph with A*, and then refines each abstract segment with {@link AStarSolver}
+ * inside a single cluster. Paths are near-optimal rather than optimal.
+ *
+ * Once built, the pathfinder listens to its grid. A wall edit rebuilds only the edited
+ * cluster and its neighbours, and cost edits are ignored, since clusters are searched
+ * by step count. Only when the grid has changed in a way not seen one edit at a time,
+ * such as clearing all walls, does the next query rebuild the whole grid.
+ * {@link #close()} stops the listening.
+ */
+public class HierarchicalPathfinder implements GridSolver, GridListener {
+    private static final int UNREACHED = SearchState.UNREACHED;
+
+    private final int clusterSize;
+    private final DijkstraSolver dijkstra = new DijkstraSolver();
+    private final AStarSolver aStar = new AStarSolver();
+
+    private GridMap grid;
+    private long builtVersion;
+    private int clusterRows;
+    private int clusterCols;
+
+    // Per cluster: a copy of its cells, its entrance cells and the k*k distances between them
+    private GridMap[] clusterGrids;
+    private int[][] clusterNodes;
+    private int[][] clusterDistances;
+
+    // Per cluster: entrance pairs {inside, outside, ...} on its east and south borders
+    private int[][] eastTransitions;
+    private int[][] southTransitions;
+
+    private final SearchState state = new SearchState();
+    private IndexedMinHeap openSet = new IndexedMinHeap(0);
+    private int[] localDistances = new int[0];
+    private int[] startDistances = new int[0];
+    private int[] endDistances = new int[0];
+    private int expanded;
+    private int builds;
+
+    public HierarchicalPathfinder() {
+        this(16);
+    }
+
+    public HierarchicalPathfinder(int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /** Preprocesses the whole grid. Called automatically by {@link #solve} when needed. */
+    public void build(GridMap grid) {
+        if (this.grid != grid) {
+            if (this.grid != null) this.grid.removeListener(this);
+            grid.addListener(this);
+        }
+        this.grid = grid;
+        builds++;
+        this.clusterRows = (grid.getRows() + clusterSize - 1) / clusterSize;
+        this.clusterCols = (grid.getCols() + clusterSize - 1) / clusterSize;
+        int clusters = clusterRows * clusterCols;
+        clusterGrids = new GridMap[clusters];
+        clusterNodes = new int[clusters][];
+        clusterDistances = new int[clusters][];
+        eastTransitions = new int[clusters][];
+        southTransitions = new int[clusters][];
+        openSet = new IndexedMinHeap(grid.size());
+        localDistances = new int[clusterSize * clusterSize];
+
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            eastTransitions[cluster] = findTransitions(cluster, true);
+            southTransitions[cluster] = findTransitions(cluster, false);
+        }
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            rebuildCluster(cluster);
+        }
+        builtVersion = grid.getVersion();
+    }
+
+    /**
+     * Brings the abstract graph up to date after the wall at {@code index} was changed on
+     * the grid. Only the cluster holding the cell and its four neighbours are rebuilt.
+     * If the grid has changed more than once since the last update, the other changes are
+     * unknown, so the whole grid is rebuilt instead. Wall edits on the built grid call
+     * this through the listener, so callers rarely need to.
+     */
+    public void updateWall(int index) {
+        if (grid == null || builtVersion == grid.getVersion()) return;
+        if (builtVersion + 1 != grid.getVersion()) {
+            build(grid);
+            return;
+        }
+        int cluster = clusterOf(index);
+        int cr = cluster / clusterCols;
+        int cc = cluster % clusterCols;
+        eastTransitions[cluster] = findTransitions(cluster, true);
+        southTransitions[cluster] = findTransitions(cluster, false);
+        if (cc > 0) eastTransitions[cluster - 1] = findTransitions(cluster - 1, true);
+        if (cr > 0) southTransitions[cluster - clusterCols] = findTransitions(cluster - clusterCols, false);
+
+        rebuildCluster(cluster);
+        if (cc > 0) rebuildCluster(cluster - 1);
+        if (cc < clusterCols - 1) rebuildCluster(cluster + 1);
+        if (cr > 0) rebuildCluster(cluster - clusterCols);
+        if (cr < clusterRows - 1) rebuildCluster(cluster + clusterCols);
+        builtVersion = grid.getVersion();
+    }
+
+    /** The number of whole-grid builds so far, which local rebuilds do not count. */
+    public int getBuildCount() {
+        return builds;
+    }
+
+    /** Stops listening to the grid. The next query on it rebuilds from scratch. */
+    public void close() {
+        if (grid != null) grid.removeListener(this);
+        grid = null;
+    }
+
+    @Override
+    public void wallChanged(int index, boolean wall) {
+        // Once an edit has been missed the graph is stale anyway, and solve() rebuilds it
+        if (builtVersion + 1 == grid.getVersion()) updateWall(index);
+    }
+
+    @Override
+    public void wallsCleared() {
+        // Leaves the graph stale, so the next query rebuilds once instead of per wall
+    }
+
+    @Override
+    public void costChanged(int index, int oldCost, int newCost) {
+        if (builtVersion + 1 == grid.getVersion()) builtVersion++;
+    }
+
+    @Override
+    public void costsCleared() {
+        if (builtVersion + 1 == grid.getVersion()) builtVersion++;
+    }
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        if (this.grid != grid || builtVersion != grid.getVersion()) {
+            build(grid);
+        }
+        int[] abstractPath = findAbstractPath(start, end);
+        if (abstractPath == null) return null;
+
+        int length = 1;
+        int[][] segments = new int[abstractPath.length - 1][];
+        for (int i = 1; i < abstractPath.length; i++) {
+            segments[i - 1] = refineSegment(abstractPath[i - 1], abstractPath[i]);
+            length += segments[i - 1].length - 1;
+        }
+        int[] path = new int[length];
+        path[0] = start;
+        int n = 1;
+        for (int[] segment : segments) {
+            System.arraycopy(segment, 1, path, n, segment.length - 1);
+            n += segment.length - 1;
+        }
+        return path;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Searches the abstract graph and returns the start, the entrance cells passed through
+     * and the end, or null if the end is unreachable. Consecutive cells are either
+     * neighbours across a cluster border or in the same cluster. Pass each pair to
+     * {@link #refineSegment} to get the cells in between.
+     */
+    public int[] findAbstractPath(int start, int end) {
+        expanded = 0;
+        if (grid.isWall(start) || grid.isWall(end)) return null;
+        if (start == end) return new int[] {start};
+
+        int startCluster = clusterOf(start);
+        int endCluster = clusterOf(end);
+        startDistances = distancesToNodes(startCluster, start, startDistances);
+        endDistances = distancesToNodes(endCluster, end, endDistances);
+        int direct = startCluster == endCluster ? localDistance(startCluster, start, end) : UNREACHED;
+
+        int cols = grid.getCols();
+        int endRow = end / cols;
+        int endCol = end % cols;
+        state.reset(grid.size());
+        openSet.clear();
+        state.reach(start, 0, -1);
+        openSet.add(start, 0);
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            expanded++;
+            if (current == end) {
+                return state.buildPath(end);
+            }
+            state.close(current);
+            int g = state.getGCost(current);
+
+            if (current == start) {
+                int[] nodes = clusterNodes[startCluster];
+                for (int i = 0; i < nodes.length; i++) {
+                    relax(current, nodes[i], g, startDistances[i], cols, endRow, endCol);
+                }
+                relax(current, end, g, direct, cols, endRow, endCol);
+                if (indexOf(nodes, start) < 0) continue;
+            }
+
+            int cluster = clusterOf(current);
+            int[] nodes = clusterNodes[cluster];
+            int[] distances = clusterDistances[cluster];
+            int k = nodes.length;
+            int self = indexOf(nodes, current);
+            for (int j = 0; j < k; j++) {
+                if (j != self) relax(current, nodes[j], g, distances[self * k + j], cols, endRow, endCol);
+            }
+            if (cluster == endCluster) {
+                relax(current, end, g, endDistances[self], cols, endRow, endCol);
+            }
+            relaxTransitions(current, eastTransitions[cluster], g, cols, endRow, endCol);
+            relaxTransitions(current, southTransitions[cluster], g, cols, endRow, endCol);
+            if (cluster % clusterCols > 0) relaxTransitions(current, eastTransitions[cluster - 1], g, cols, endRow, endCol);
+            if (cluster >= clusterCols) relaxTransitions(current, southTransitions[cluster - clusterCols], g, cols, endRow, endCol);
+        }
+        return null;
+    }
+
+    /** Returns the cells from {@code from} to {@code to}, two consecutive abstract path cells. */
+    public int[] refineSegment(int from, int to) {
+        int cluster = clusterOf(from);
+        if (cluster != clusterOf(to)) {
+            return new int[] {from, to};
+        }
+        GridMap local = clusterGrids[cluster];
+        int[] localPath = aStar.solve(local, toLocal(cluster, from), toLocal(cluster, to));
+        expanded += aStar.getNodesExpanded();
+        int[] path = new int[localPath.length];
+        for (int i = 0; i < localPath.length; i++) {
+            path[i] = toGlobal(cluster, localPath[i]);
+        }
+        return path;
+    }
+
+    private void relaxTransitions(int current, int[] transitions, int g, int cols, int endRow, int endCol) {
+        for (int i = 0; i < transitions.length; i += 2) {
+            if (transitions[i] == current) {
+                relax(current, transitions[i + 1], g, 1, cols, endRow, endCol);
+            } else if (transitions[i + 1] == current) {
+                relax(current, transitions[i], g, 1, cols, endRow, endCol);
+            }
+        }
+    }
+
+    private void relax(int current, int next, int g, int cost, int cols, int endRow, int endCol) {
+        if (cost == UNREACHED || state.isClosed(next)) return;
+        int tentativeG = g + cost;
+        if (tentativeG >= state.getGCost(next)) return;
+        boolean inOpen = openSet.contains(next);
+        state.reach(next, tentativeG, current);
+        int h = Math.abs(next / cols - endRow) + Math.abs(next % cols - endCol);
+        long key = ((long) (tentativeG + h) << 32) | h;
+        if (inOpen) {
+            openSet.decreaseKey(next, key);
+        } else {
+            openSet.add(next, key);
+        }
+    }
+
+    private int[] findTransitions(int cluster, boolean east) {
+        int cr = cluster / clusterCols;
+        int cc = cluster % clusterCols;
+        if (east ? cc == clusterCols - 1 : cr == clusterRows - 1) {
+            return new int[0];
+        }
+        int cols = grid.getCols();
+        int inside;
+        int stride;
+        int length;
+        if (east) {
+            int lastCol = Math.min(grid.getCols(), (cc + 1) * clusterSize) - 1;
+            inside = cr * clusterSize * cols + lastCol;
+            stride = cols;
+            length = Math.min(grid.getRows(), (cr + 1) * clusterSize) - cr * clusterSize;
+        } else {
+            int lastRow = Math.min(grid.getRows(), (cr + 1) * clusterSize) - 1;
+            inside = lastRow * cols + cc * clusterSize;
+            stride = 1;
+            length = Math.min(grid.getCols(), (cc + 1) * clusterSize) - cc * clusterSize;
+        }
+        int across = east ? 1 : cols;
+
+        // Each maximal run of open cell pairs becomes one entrance, or two if it is long
+        int[] transitions = new int[length * 2];
+        int count = 0;
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cell = inside + i * stride;
+            boolean open = i < length && !grid.isWall(cell) && !grid.isWall(cell + across);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 < 6) {
+                    int mid = inside + ((runStart + runEnd) / 2) * stride;
+                    transitions[count++] = mid;
+                    transitions[count++] = mid + across;
+                } else {
+                    int first = inside + runStart * stride;
+                    int last = inside + runEnd * stride;
+                    transitions[count++] = first;
+                    transitions[count++] = first + across;
+                    transitions[count++] = last;
+                    transitions[count++] = last + across;
+                }
+                runStart = -1;
+            }
+        }
+        return Arrays.copyOf(transitions, count);
+    }
+
+    private void rebuildCluster(int cluster) {
+        int cr = cluster / clusterCols;
+        int cc = cluster % clusterCols;
+        int rowStart = cr * clusterSize;
+        int colStart = cc * clusterSize;
+        int height = Math.min(grid.getRows(), rowStart + clusterSize) - rowStart;
+        int width = Math.min(grid.getCols(), colStart + clusterSize) - colStart;
+
+        GridMap local = new GridMap(height, width);
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                local.setWall(r, c, grid.isWall(rowStart + r, colStart + c));
+            }
+        }
+        clusterGrids[cluster] = local;
+
+        // Entrances come from this cluster's own east/south borders and its neighbours'
+        int[] candidates = new int[0];
+        candidates = appendSide(candidates, eastTransitions[cluster], 0);
+        candidates = appendSide(candidates, southTransitions[cluster], 0);
+        if (cc > 0) candidates = appendSide(candidates, eastTransitions[cluster - 1], 1);
+        if (cr > 0) candidates = appendSide(candidates, southTransitions[cluster - clusterCols], 1);
+        int[] nodes = Arrays.stream(candidates).distinct().sorted().toArray();
+        clusterNodes[cluster] = nodes;
+
+        int k = nodes.length;
+        int[] distances = new int[k * k];
+        for (int i = 0; i < k; i++) {
+            dijkstra.distancesFrom(local, toLocal(cluster, nodes[i]), localDistances);
+            for (int j = 0; j < k; j++) {
+                distances[i * k + j] = localDistances[toLocal(cluster, nodes[j])];
+            }
+        }
+        clusterDistances[cluster] = distances;
+    }
+
+    private static int[] appendSide(int[] nodes, int[] transitions, int side) {
+        int[] result = Arrays.copyOf(nodes, nodes.length + transitions.length / 2);
+        for (int i = side, n = nodes.length; i < transitions.length; i += 2) {
+            result[n++] = transitions[i];
+        }
+        return result;
+    }
+
+    private int[] distancesToNodes(int cluster, int cell, int[] out) {
+        int[] nodes = clusterNodes[cluster];
+        if (out.length < nodes.length) {
+            out = new int[nodes.length];
+        }
+        dijkstra.distancesFrom(clusterGrids[cluster], toLocal(cluster, cell), localDistances);
+        for (int i = 0; i < nodes.length; i++) {
+            out[i] = localDistances[toLocal(cluster, nodes[i])];
+        }
+        return out;
+    }
+
+    private int localDistance(int cluster, int from, int to) {
+        int[] path = aStar.solve(clusterGrids[cluster], toLocal(cluster, from), toLocal(cluster, to));
+        return path == null ? UNREACHED : path.length - 1;
+    }
+
+    private int clusterOf(int index) {
+        int cols = grid.getCols();
+        return (index / cols / clusterSize) * clusterCols + (index % cols) / clusterSize;
+    }
+
+    private int toLocal(int cluster, int index) {
+        int cols = grid.getCols();
+        int width = clusterGrids[cluster].getCols();
+        int r = index / cols - (cluster / clusterCols) * clusterSize;
+        int c = index % cols - (cluster % clusterCols) * clusterSize;
+        return r * width + c;
+    }
+
+    private int toGlobal(int cluster, int local) {
+        int width = clusterGrids[cluster].getCols();
+        int r = local / width + (cluster / clusterCols) * clusterSize;
+        int c = local % width + (cluster % clusterCols) * clusterSize;
+        return r * grid.getCols() + c;
+    }
+
+    private static int indexOf(int[] nodes, int cell) {
+        int i = Arrays.binarySearch(nodes, cell);
+        return i >= 0 ? i : -1;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap over integer items in the range [0, capacity), typically cell indices
+ * (row * cols + col). A position array gives O(1) membership tests and lets a queued
+ * item have its key lowered in place instead of being re-added.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int item) { return positions[item] >= 0; }
+    public long getKey(int item) { return keys[item]; }
+
+    public void add(int item, long key) {
+        if (positions[item] >= 0) {
+            throw new IllegalArgumentException("Item already queued: " + item);
+        }
+        keys[item] = key;
+        heap[size] = item;
+        positions[item] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int item, long key) {
+        int pos = positions[item];
+        if (pos < 0) {
+            throw new IllegalArgumentException("Item not queued: " + item);
+        }
+        if (key > keys[item]) {
+            throw new IllegalArgumentException("New key is greater than current key for item: " + item);
+        }
+        keys[item] = key;
+        siftUp(pos);
+    }
+
+    public void remove(int item) {
+        int pos = positions[item];
+        if (pos < 0) {
+            throw new IllegalArgumentException("Item not queued: " + item);
+        }
+        positions[item] = -1;
+        size--;
+        if (pos == size) return;
+        int last = heap[size];
+        heap[pos] = last;
+        positions[last] = pos;
+        siftDown(pos);
+        if (heap[pos] == last) siftUp(pos);
+    }
+
+    public int peek() {
+        if (size == 0) throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    public long peekKey() {
+        return keys[peek()];
+    }
+
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException();
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int item = heap[pos];
+        long key = keys[item];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) break;
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int item = heap[pos];
+        long key = keys[item];
+        int half = size >>> 1;
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+            if (rightPos < size && keys[heap[rightPos]] < keys[child]) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+            if (key <= keys[child]) break;
+            heap[pos] = child;
+            positions[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps any {@link PathfindingAlgorithm} and measures each query without changing it.
+ * Opened and closed cells are counted through a {@link StepListener} that stays installed
+ * on the wrapped algorithm, and listeners set on the wrapper still receive every event.
+ *
+ * When a search finishes, its {@link SearchStats} are recorded into the given
+ * {@link SearchMetrics}, if any. Flight Recorder events are committed at initialization
+ * and at the finish. They cost nothing beyond a flag check unless a recording has them
+ * enabled.
+ *
+ * D* Lite keeps searching after wall edits, so one initialization may finish more than
+ * once. {@link #getStats()} then gives the totals so far. The first finish records the
+ * query, and each later one records only the work done since the finish before it.
+ */
+public class InstrumentedAlgorithm implements PathfindingAlgorithm {
+    private final String name;
+    private final PathfindingAlgorithm delegate;
+    private final SearchMetrics metrics;
+    private StepListener listener;
+
+    private long opened;
+    private long closed;
+    private long peakOpen;
+    private long steps;
+    private long searchNanos;
+    private boolean finished;
+    private SearchStats stats;
+    // Work already recorded by an earlier finish of the same search
+    private boolean recorded;
+    private int recordedExpanded;
+    private long recordedOpened;
+    private long recordedSteps;
+    private long recordedNanos;
+    private SearchFinishedEvent finishEvent;
+
+    private final StepListener counter = new StepListener() {
+        @Override
+        public void cellOpened(Cell cell) {
+            opened++;
+            if (opened - closed > peakOpen) peakOpen = opened - closed;
+            if (listener != null) listener.cellOpened(cell);
+        }
+
+        @Override
+        public void cellClosed(Cell cell) {
+            closed++;
+            if (listener != null) listener.cellClosed(cell);
+        }
+    };
+
+    public InstrumentedAlgorithm(String name, PathfindingAlgorithm delegate, SearchMetrics metrics) {
+        this.name = name;
+        this.delegate = delegate;
+        this.metrics = metrics;
+        delegate.setStepListener(counter);
+    }
+
+    public PathfindingAlgorithm getDelegate() {
+        return delegate;
+    }
+
+    /** Returns the stats of the last finished search, or null if none has finished. */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void initialize(Cell[][] grid, Cell start, Cell end) {
+        opened = 0;
+        closed = 0;
+        peakOpen = 0;
+        steps = 0;
+        searchNanos = 0;
+        finished = false;
+        stats = null;
+        recorded = false;
+
+        SearchStartedEvent startEvent = new SearchStartedEvent();
+        if (startEvent.isEnabled()) {
+            startEvent.algorithm = name;
+            startEvent.start = start.getIndex();
+            startEvent.end = end.getIndex();
+            startEvent.cells = grid.length * grid[0].length;
+            startEvent.commit();
+        }
+        finishEvent = new SearchFinishedEvent();
+        finishEvent.begin();
+
+        long begin = System.nanoTime();
+        delegate.initialize(grid, start, end);
+        searchNanos += System.nanoTime() - begin;
+    }
+
+    @Override
+    public boolean step() {
+        long begin = System.nanoTime();
+        boolean done = delegate.step();
+        searchNanos += System.nanoTime() - begin;
+        steps++;
+        if (done && !finished) finish();
+        finished = done;
+        return done;
+    }
+
+    @Override
+    public List<Cell> solve() {
+        // Steps the delegate as its own solve() would, so the steps are counted, but times
+        // the loop once instead of every step
+        delegate.setTrackVisualization(false);
+        long begin = System.nanoTime();
+        try {
+            do {
+                steps++;
+            } while (!delegate.step());
+        } finally {
+            searchNanos += System.nanoTime() - begin;
+            delegate.setTrackVisualization(true);
+        }
+        if (!finished) finish();
+        finished = true;
+        return delegate.getPath();
+    }
+
+    private void finish() {
+        List<Cell> path = delegate.getPath();
+        stats = new SearchStats(name, delegate.getNodesExpanded(), opened, peakOpen, steps, searchNanos,
+            path == null ? -1 : path.size() - 1);
+        if (metrics != null) {
+            if (!recorded) {
+                metrics.record(stats);
+            } else {
+                metrics.recordReplan(new SearchStats(name, stats.getNodesExpanded() - recordedExpanded,
+                    opened - recordedOpened, peakOpen, steps - recordedSteps, searchNanos - recordedNanos,
+                    stats.getPathLength()));
+            }
+        }
+        recorded = true;
+        recordedExpanded = stats.getNodesExpanded();
+        recordedOpened = opened;
+        recordedSteps = steps;
+        recordedNanos = searchNanos;
+
+        SearchFinishedEvent event = finishEvent;
+        if (event != null && event.shouldCommit()) {
+            event.algorithm = name;
+            event.nodesExpanded = stats.getNodesExpanded();
+            event.cellsOpened = opened;
+            event.peakOpen = peakOpen;
+            event.steps = steps;
+            event.searchTime = searchNanos;
+            event.pathLength = stats.getPathLength();
+            event.commit();
+        }
+        // A later finish of the same search, as in D* Lite, starts a fresh span
+        finishEvent = new SearchFinishedEvent();
+        finishEvent.begin();
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setTrackVisualization(boolean track) {
+        delegate.setTrackVisualization(track);
+    }
+
+    @Override
+    public void setMovement(GridTopology.Movement movement) {
+        delegate.setMovement(movement);
+    }
+
+    @Override
+    public boolean supportsDiagonals() {
+        return delegate.supportsDiagonals();
+    }
+
+    @Override
+    public List<Cell> getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public Set<Cell> getFrontier() {
+        return delegate.getFrontier();
+    }
+
+    @Override
+    public Set<Cell> getVisited() {
+        return delegate.getVisited();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return delegate.getNodesExpanded();
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.*;
+
+/**
+ * Jump Point Search for 4-connected, uniform-cost grids. It returns paths of the same
+ * length as A* but only expands "jump points", the cells where an optimal path may turn.
+ *
+ * Paths are canonicalised horizontal-first: a vertical move may only turn horizontal
+ * where the cell diagonally behind it is a wall (a forced neighbour). Any other turn can
+ * be swapped for a horizontal-then-vertical path of equal length. So vertical jumps stop
+ * at forced neighbours and the goal, and horizontal jumps stop at the goal or wherever a
+ * vertical jump would find something.
+ *
+ * As in JPS+, the goal-independent jump distances are precomputed once per wall layout.
+ * Every jump is then O(1) instead of a scan. The tables are rebuilt when the grid's
+ * version changes.
+ */
+public class JumpPointSearchAlgorithm implements PathfindingAlgorithm, GridSolver {
+    private static final int UP = 0;
+    private static final int DOWN = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    private Cell[][] cells;
+    private GridMap grid;
+    private int rows;
+    private int cols;
+    private int endIndex;
+    private int endRow;
+    private int endCol;
+
+    // jump[dir][cell] > 0: a jump point that many steps away; <= 0: minus the free steps before a wall
+    private int[][] jump;
+    private GridMap jumpGrid;
+    private long jumpVersion;
+
+    private final SearchState state = new SearchState();
+    private IndexedMinHeap openSet = new IndexedMinHeap(0);
+    private int capacity;
+    private boolean finished;
+    private int[] pathIndices;
+    private List<Cell> path;
+    private Set<Cell> frontier = new HashSet<>();
+    private Set<Cell> visitedSet = new HashSet<>();
+    private int expanded;
+    private boolean trackVisualization = true;
+    private StepListener listener;
+
+    @Override
+    public void initialize(Cell[][] grid, Cell start, Cell end) {
+        this.cells = grid;
+        this.frontier = new HashSet<>();
+        this.visitedSet = new HashSet<>();
+        this.path = null;
+        begin(start.getGrid(), start.getIndex(), end.getIndex());
+        frontier.add(start);
+        if (listener != null) listener.cellOpened(start);
+    }
+
+    @Override
+    public int[] solve(GridMap grid, int start, int end) {
+        this.cells = null;
+        begin(grid, start, end);
+        solve();
+        return pathIndices;
+    }
+
+    private void begin(GridMap grid, int start, int end) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.endIndex = end;
+        this.endRow = end / cols;
+        this.endCol = end % cols;
+        this.finished = false;
+        this.pathIndices = null;
+        this.expanded = 0;
+        if (jumpGrid != grid || jumpVersion != grid.getVersion()) {
+            buildJumpTables();
+        }
+        if (capacity != grid.size()) {
+            openSet = new IndexedMinHeap(grid.size());
+            capacity = grid.size();
+        } else {
+            openSet.clear();
+        }
+        state.reset(grid.size());
+        state.reach(start, 0, -1);
+        openSet.add(start, priority(0, heuristic(start)));
+    }
+
+    @Override
+    public boolean step() {
+        if (finished) return true;
+        Set<Cell> newFrontier = trackVisualization ? new HashSet<>() : null;
+        if (openSet.isEmpty()) {
+            finish(null);
+            return true;
+        }
+        int current = openSet.poll();
+        expanded++;
+        if (trackVisualization && cells != null) visitedSet.add(cellAt(current));
+        if (listener != null && cells != null) listener.cellClosed(cellAt(current));
+        if (current == endIndex) {
+            finish(state.buildPath(current));
+            return true;
+        }
+        state.close(current);
+
+        int g = state.getGCost(current);
+        int mask = successorDirections(current);
+        for (int dir = 0; dir < 4; dir++) {
+            if ((mask & (1 << dir)) == 0) continue;
+            int next = dir <= DOWN ? jumpVertical(current, dir) : jumpHorizontal(current, dir);
+            if (next < 0 || state.isClosed(next)) continue;
+            int tentativeG = g + distance(current, next);
+            if (tentativeG >= state.getGCost(next)) continue;
+            boolean inOpen = openSet.contains(next);
+            state.reach(next, tentativeG, current);
+            long key = priority(tentativeG, heuristic(next));
+            if (inOpen) {
+                openSet.decreaseKey(next, key);
+            } else {
+                openSet.add(next, key);
+                if (newFrontier != null && cells != null) newFrontier.add(cellAt(next));
+                if (listener != null && cells != null) listener.cellOpened(cellAt(next));
+            }
+        }
+        if (newFrontier != null) frontier = newFrontier;
+        return false;
+    }
+
+    private void finish(int[] jumpPoints) {
+        finished = true;
+        frontier.clear();
+        pathIndices = jumpPoints == null ? null : fillPath(jumpPoints);
+        if (cells != null && pathIndices != null) {
+            path = new ArrayList<>(pathIndices.length);
+            for (int index : pathIndices) {
+                path.add(cellAt(index));
+            }
+        } else {
+            path = null;
+        }
+    }
+
+    @Override
+    public List<Cell> getPath() {
+        return path;
+    }
+
+    @Override
+    public Set<Cell> getFrontier() {
+        return new HashSet<>(frontier);
+    }
+
+    @Override
+    public Set<Cell> getVisited() {
+        return new HashSet<>(visitedSet);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void setTrackVisualization(boolean track) {
+        trackVisualization = track;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+
+    private int successorDirections(int current) {
+        int parent = state.getParent(current);
+        if (parent < 0) {
+            return (1 << UP) | (1 << DOWN) | (1 << LEFT) | (1 << RIGHT);
+        }
+        int row = current / cols;
+        int col = current % cols;
+        int dCol = Integer.signum(col - parent % cols);
+        if (dCol != 0) {
+            return (1 << (dCol < 0 ? LEFT : RIGHT)) | (1 << UP) | (1 << DOWN);
+        }
+        int dRow = Integer.signum(row - parent / cols);
+        int mask = 1 << (dRow < 0 ? UP : DOWN);
+        if (isForced(row, col, dRow, -1)) mask |= 1 << LEFT;
+        if (isForced(row, col, dRow, 1)) mask |= 1 << RIGHT;
+        return mask;
+    }
+
+    // Arriving at (row, col) vertically, the side cell is only worth visiting from here
+    // if the cell diagonally behind it is blocked
+    private boolean isForced(int row, int col, int dRow, int dCol) {
+        int sideCol = col + dCol;
+        if (sideCol < 0 || sideCol >= cols) return false;
+        return !grid.isWall(row, sideCol) && grid.isWall(row - dRow, sideCol);
+    }
+
+    private int jumpVertical(int from, int dir) {
+        int row = from / cols;
+        int col = from % cols;
+        int dRow = dir == UP ? -1 : 1;
+        int steps = jump[dir][from];
+        if (col == endCol && (endRow - row) * dRow > 0) {
+            int toGoal = Math.abs(endRow - row);
+            if (toGoal <= Math.abs(steps)) return endIndex;
+        }
+        return steps > 0 ? from + steps * dRow * cols : -1;
+    }
+
+    private int jumpHorizontal(int from, int dir) {
+        int row = from / cols;
+        int col = from % cols;
+        int dCol = dir == LEFT ? -1 : 1;
+        int steps = jump[dir][from];
+        int reach = Math.abs(steps);
+        if ((endCol - col) * dCol > 0 && Math.abs(endCol - col) <= reach) {
+            // A vertical jump from the goal's column would find the goal
+            int candidate = row * cols + endCol;
+            if (row == endRow) return candidate;
+            int vertical = row < endRow ? DOWN : UP;
+            if (Math.abs(endRow - row) <= Math.abs(jump[vertical][candidate])) return candidate;
+        }
+        return steps > 0 ? from + steps * dCol : -1;
+    }
+
+    private void buildJumpTables() {
+        int size = rows * cols;
+        if (jump == null || jump[0].length != size) {
+            jump = new int[4][size];
+        }
+        int[] up = jump[UP];
+        int[] down = jump[DOWN];
+        int[] left = jump[LEFT];
+        int[] right = jump[RIGHT];
+        for (int col = 0; col < cols; col++) {
+            up[col] = 0;
+            for (int row = 1; row < rows; row++) {
+                int index = row * cols + col;
+                up[index] = chain(up[index - cols], index - cols, row - 1, col, -1);
+            }
+            down[(rows - 1) * cols + col] = 0;
+            for (int row = rows - 2; row >= 0; row--) {
+                int index = row * cols + col;
+                down[index] = chain(down[index + cols], index + cols, row + 1, col, 1);
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            int base = row * cols;
+            left[base] = 0;
+            for (int col = 1; col < cols; col++) {
+                left[base + col] = chainHorizontal(left[base + col - 1], base + col - 1);
+            }
+            right[base + cols - 1] = 0;
+            for (int col = cols - 2; col >= 0; col--) {
+                right[base + col] = chainHorizontal(right[base + col + 1], base + col + 1);
+            }
+        }
+        jumpGrid = grid;
+        jumpVersion = grid.getVersion();
+    }
+
+    private int chain(int nextValue, int next, int nextRow, int col, int dRow) {
+        if (grid.isWall(next)) return 0;
+        if (isForced(nextRow, col, dRow, -1) || isForced(nextRow, col, dRow, 1)) return 1;
+        return nextValue > 0 ? nextValue + 1 : nextValue - 1;
+    }
+
+    private int chainHorizontal(int nextValue, int next) {
+        if (grid.isWall(next)) return 0;
+        if (jump[UP][next] > 0 || jump[DOWN][next] > 0) return 1;
+        return nextValue > 0 ? nextValue + 1 : nextValue - 1;
+    }
+
+    // Jump points are joined by straight segments, so fill in the cells between them
+    private int[] fillPath(int[] jumpPoints) {
+        int length = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            length += distance(jumpPoints[i - 1], jumpPoints[i]);
+        }
+        int[] result = new int[length];
+        int n = 0;
+        result[n++] = jumpPoints[0];
+        for (int i = 1; i < jumpPoints.length; i++) {
+            int from = jumpPoints[i - 1];
+            int to = jumpPoints[i];
+            int stride = from / cols == to / cols ? Integer.signum(to - from) : Integer.signum(to - from) * cols;
+            for (int at = from + stride; at != to; at += stride) {
+                result[n++] = at;
+            }
+            result[n++] = to;
+        }
+        return result;
+    }
+
+    private int distance(int a, int b) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    private int heuristic(int index) {
+        return Math.abs(index / cols - endRow) + Math.abs(index % cols - endCol);
+    }
+
+    // Orders by f-cost, breaking ties towards the cell closer to the goal
+    private static long priority(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+
+    private Cell cellAt(int index) {
+        return cells[index / cols][index % cols];
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * ALT heuristic (A*, landmarks, triangle inequality). A few landmark cells are chosen
+ * once per map, and the cheapest cost from each landmark to every cell is stored. For a
+ * landmark L, the triangle inequality gives two lower bounds on the cost from a to b:
+ * d(L, b) - d(L, a), and d(a, L) - d(b, L). The estimate is the largest bound over all
+ * landmarks, and never less than the Manhattan distance.
+ *
+ * Entering a cell costs that cell's cost, so the reverse distances follow from the
+ * forward ones: d(x, L) = d(L, x) - cost(x) + cost(L). One table per landmark covers
+ * both bounds.
+ *
+ * Landmarks are spread evenly around the edge of the grid, starting at the top-left
+ * corner, each moved to the nearest open cell of the largest connected region. Cells on
+ * the far side of a detour from a landmark then get bounds that follow the detour.
+ * The tables are built with {@link DialSolver}, one landmark per worker on the common
+ * ForkJoinPool.
+ *
+ * Memory is one int per cell per landmark. The tables describe the grid at the time they
+ * were built. After a wall is removed or a cost lowered the bounds may be too high, so a
+ * heuristic that is no longer {@link #isCurrent() current} should be rebuilt.
+ */
+public class LandmarkHeuristic implements Heuristic {
+    private static final int UNREACHED = SearchState.UNREACHED;
+
+    private final GridMap grid;
+    private final int cols;
+    private final long version;
+    private final int[] landmarks;
+    private final int[][] distances;
+
+    public LandmarkHeuristic(GridMap grid, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one landmark is needed: " + count);
+        }
+        this.grid = grid;
+        this.cols = grid.getCols();
+        this.version = grid.getVersion();
+        this.landmarks = select(grid, count);
+        this.distances = new int[landmarks.length][];
+        IntStream.range(0, landmarks.length).parallel().forEach(i -> {
+            int[] table = new int[grid.size()];
+            new DialSolver().distancesFrom(grid, landmarks[i], table);
+            distances[i] = table;
+        });
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int fromRow = from / cols;
+        int toRow = to / cols;
+        int best = Math.abs(fromRow - toRow) + Math.abs(from - fromRow * cols - (to - toRow * cols));
+        int costDifference = grid.getCost(to) - grid.getCost(from);
+        for (int[] table : distances) {
+            int a = table[from];
+            int b = table[to];
+            if (a == UNREACHED || b == UNREACHED) continue;
+            best = Math.max(best, Math.max(b - a, a - b + costDifference));
+        }
+        return best;
+    }
+
+    /** Whether the grid is unchanged since the tables were built. */
+    public boolean isCurrent() {
+        return grid.getVersion() == version;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    public long bytesPerLandmark() {
+        return (long) grid.size() * Integer.BYTES;
+    }
+
+    private static int[] select(GridMap grid, int count) {
+        ConnectedComponents components = new ConnectedComponents(grid);
+        int region = ConnectedComponents.WALL;
+        int regionSize = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            int size = components.sizeOf(i);
+            if (size > regionSize) {
+                regionSize = size;
+                region = components.componentOf(i);
+            }
+        }
+        if (region == ConnectedComponents.WALL) {
+            components.close();
+            throw new IllegalArgumentException("The grid has no open cells");
+        }
+
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int perimeter = Math.max(1, 2 * (rows - 1) + 2 * (cols - 1));
+        count = Math.min(count, regionSize);
+        int[] chosen = new int[count];
+        Arrays.fill(chosen, -1);
+        for (int k = 0; k < count; k++) {
+            // Walk clockwise from the top-left corner to this landmark's share of the edge
+            int t = (int) ((long) k * perimeter / count);
+            int row, col;
+            if (t < cols - 1) {
+                row = 0;
+                col = t;
+            } else if ((t -= cols - 1) < rows - 1) {
+                row = t;
+                col = cols - 1;
+            } else if ((t -= rows - 1) < cols - 1) {
+                row = rows - 1;
+                col = cols - 1 - t;
+            } else {
+                row = rows - 1 - (t - (cols - 1));
+                col = 0;
+            }
+            chosen[k] = nearest(grid, components, region, row, col, chosen);
+        }
+        components.close();
+        return chosen;
+    }
+
+    private static int nearest(GridMap grid, ConnectedComponents components, int region, int row, int col, int[] taken) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < grid.size(); i++) {
+            if (components.componentOf(i) != region) continue;
+            int distance = Math.abs(grid.row(i) - row) + Math.abs(grid.col(i) - col);
+            if (distance < bestDistance && !contains(taken, i)) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+}
@@ -1,26 +1,73 @@
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.swing.*;
 
 public class MainGUI extends JFrame {
-    private static final int ROWS = 10;
-    private static final int COLS = 10;
+    private static final int DEFAULT_ROWS = 10;
+    private static final int DEFAULT_COLS = 10;
+    private static final int MAX_SIZE = 2000;
+
+    // Auto mode steps for this long in each ~60 Hz frame and sleeps for the rest
+    private static final long STEP_BUDGET_NANOS = 10_000_000L;
+
+    // Highest cost the Terrain option lays down. Open cells shade from light grey at cost 1
+    // to brown at this cost.
+    private static final int TERRAIN_MAX_COST = 9;
+    private static final Color[] TERRAIN_COLORS = new Color[TERRAIN_MAX_COST + 1];
+    static {
+        for (int cost = 1; cost <= TERRAIN_MAX_COST; cost++) {
+            double t = (cost - 1) / (double) (TERRAIN_MAX_COST - 1);
+            TERRAIN_COLORS[cost] = new Color((int) (238 - t * 98), (int) (238 - t * 133), (int) (238 - t * 183));
+        }
+    }
 
-    private final JPanel gridPanel;
-    private final MazeGenerator mazeGenerator;
+    private int rows;
+    private int cols;
+    private GridCanvas gridCanvas;
+    private MazeGenerator mazeGenerator;
 
+    private GridMap grid;
+    private ConnectedComponents components;
     private Cell[][] cells;
-    private JButton[][] cellButtons;
-    private final Set<Cell> lastAffectedCells = new HashSet<>();
+    private final BitSet lastAffectedCells = new BitSet();
+    private final java.util.List<Cell> dirtyCells = new ArrayList<>();
+    private final SearchRunner runner = new SearchRunner(new SearchRunner.Listener() {
+        @Override
+        public void cellsTouched(int[] indices, int count) {
+            for (int i = 0; i < count; i++) {
+                markAffected(indices[i]);
+            }
+            updateDirtyCellColors();
+        }
+
+        @Override
+        public void searchStopped(boolean finished) {
+            autoToggle.setSelected(false);
+            if (finished) showResult();
+        }
+    });
 
     private String selectedAlgorithm = "A*";
-    private PathfindingAlgorithm algo = null;
+    private InstrumentedAlgorithm algo = null;
     private boolean algoInitialized = false;
+    private Cell startCell;
+    private Cell endCell;
 
     private Runnable updateCellColors;
-    private javax.swing.Timer autoIterateTimer;
+    private JToggleButton autoToggle;
+    private JToggleButton terrainToggle;
+    private JToggleButton diagonalToggle;
 
     public MainGUI() {
+        this(DEFAULT_ROWS, DEFAULT_COLS);
+    }
+
+    public MainGUI(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
         setTitle("Path Finder");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -29,14 +76,17 @@ public class MainGUI extends JFrame {
         JPanel headerPanel = createHeaderPanel();
         add(headerPanel, BorderLayout.NORTH);
 
-        gridPanel = createGridPanel();
-        add(gridPanel, BorderLayout.CENTER);
+        grid = new GridMap(rows, cols);
+        components = new ConnectedComponents(grid);
+        gridCanvas = createGridCanvas();
+        add(gridCanvas, BorderLayout.CENTER);
+        setJMenuBar(createMenuBar());
 
-        mazeGenerator = new MazeGenerator(ROWS, COLS);
+        mazeGenerator = new MazeGenerator(rows, cols);
         generateInitialMaze();
 
         setupUpdateCellColors();
-        setSize(900, 600);
+        setSize(1100, 700);
         setLocationRelativeTo(null);
         setVisible(true);
     }
@@ -62,15 +112,27 @@ public class MainGUI extends JFrame {
         topPanel.setBackground(new Color(128, 128, 128));
         JButton startButton = createButton("Start", 220, 60, e -> onStart());
         JButton regenerateButton = createButton("R", 80, 60, e -> onRegenerate());
+        JButton sizeButton = createButton("Size", 110, 60, e -> onResize());
+        terrainToggle = createToggle("Terrain", 110, 60, e -> onRegenerate());
         topPanel.add(startButton);
         topPanel.add(regenerateButton);
+        topPanel.add(sizeButton);
+        topPanel.add(terrainToggle);
 
         JPanel iteratePanel = new JPanel();
         iteratePanel.setBackground(new Color(128, 128, 128));
         JButton iterateButton = createButton("Iterate", 220, 60, e -> iterateStep());
-        JToggleButton autoToggle = createToggle("Auto", 90, 60, e -> toggleAutoIterate((JToggleButton) e.getSource()));
+        autoToggle = createToggle("Auto", 90, 60, e -> toggleAutoIterate(autoToggle));
+        JButton finishButton = createButton("Finish", 140, 60, e -> onFinish());
+        diagonalToggle = createToggle("Diagonal", 110, 60, e -> {
+            if (algoInitialized) onStart();
+        });
+        diagonalToggle.setToolTipText("Move diagonally where both cells beside the move are open. "
+            + "A*, Dijkstra, BFS, DFS, Greedy and Bidirectional only.");
         iteratePanel.add(iterateButton);
         iteratePanel.add(autoToggle);
+        iteratePanel.add(finishButton);
+        iteratePanel.add(diagonalToggle);
 
         bgPanel.add(topPanel);
         bgPanel.add(iteratePanel);
@@ -79,40 +141,44 @@ public class MainGUI extends JFrame {
     }
 
     private JPanel createAlgorithmPanel() {
-        JPanel algoPanel = new JPanel(new GridLayout(2, 3, 10, 5));
+        JPanel algoPanel = new JPanel(new GridLayout(2, 6, 10, 5));
         algoPanel.setBackground(new Color(128, 128, 128));
 
         ButtonGroup group = new ButtonGroup();
         algoPanel.add(createAlgoToggle("A*", "A*", group, true));
         algoPanel.add(createAlgoToggle("Dijkstra", "Dijkstra", group, false));
         algoPanel.add(createAlgoToggle("BFS", "BFS", group, false));
+        algoPanel.add(createAlgoToggle("Parallel BFS", "Parallel BFS", group, false));
         algoPanel.add(createAlgoToggle("DFS", "DFS", group, false));
         algoPanel.add(createAlgoToggle("Greedy Best-First", "Greedy", group, false));
         algoPanel.add(createAlgoToggle("Bidirectional", "Bidirectional", group, false));
+        algoPanel.add(createAlgoToggle("Bidirectional A*", "Bidirectional A*", group, false));
+        algoPanel.add(createAlgoToggle("Bidirectional Dijkstra", "Bidirectional Dijkstra", group, false));
+        algoPanel.add(createAlgoToggle("Jump Point", "JPS", group, false));
+        algoPanel.add(createAlgoToggle("D* Lite", "D* Lite", group, false));
 
         return algoPanel;
     }
 
-    private JPanel createGridPanel() {
-        JPanel panel = new JPanel(new GridLayout(ROWS, COLS));
-        panel.setBackground(new Color(128, 128, 128));
-
-        cells = new Cell[ROWS][COLS];
-        cellButtons = new JButton[ROWS][COLS];
-
-        for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLS; c++) {
-                cells[r][c] = new Cell(r, c);
-                JButton cellBtn = new JButton();
-                cellBtn.setPreferredSize(new Dimension(40, 40));
-                cellBtn.setEnabled(false);
-                cellBtn.setOpaque(true);
-                cellBtn.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
-                cellButtons[r][c] = cellBtn;
-                panel.add(cellBtn);
-            }
-        }
-        return panel;
+    private JMenuBar createMenuBar() {
+        JMenu fileMenu = new JMenu("File");
+        JMenuItem openItem = new JMenuItem("Open Grid...");
+        openItem.addActionListener(e -> onOpenGrid());
+        JMenuItem saveItem = new JMenuItem("Save Grid...");
+        saveItem.addActionListener(e -> onSaveGrid());
+        fileMenu.add(openItem);
+        fileMenu.add(saveItem);
+
+        JMenuBar menuBar = new JMenuBar();
+        menuBar.add(fileMenu);
+        return menuBar;
+    }
+
+    private GridCanvas createGridCanvas() {
+        cells = grid.createCellView();
+        GridCanvas canvas = new GridCanvas(rows, cols);
+        canvas.setCellClickListener((row, col, secondary) -> onCellClicked(cells[row][col], secondary));
+        return canvas;
     }
 
     private JButton createButton(String text, int w, int h, java.awt.event.ActionListener listener) {
@@ -141,8 +207,9 @@ public class MainGUI extends JFrame {
 
     private void generateInitialMaze() {
         mazeGenerator.generateMaze(cells);
-        cells[ROWS / 2][1].setStart(true);
-        cells[ROWS / 2][COLS - 2].setEnd(true);
+        if (terrainToggle.isSelected()) mazeGenerator.generateTerrain(cells, TERRAIN_MAX_COST);
+        cells[rows / 2][1].setStart(true);
+        cells[rows / 2][cols - 2].setEnd(true);
     }
 
     private void setupUpdateCellColors() {
@@ -156,23 +223,45 @@ public class MainGUI extends JFrame {
                     }
                 }
             }
-            for (int r = 0; r < ROWS; r++) {
-                for (int c = 0; c < COLS; c++) {
-                    JButton btn = cellButtons[r][c];
-                    Cell cell = cells[r][c];
-                    if (cell.isStart()) btn.setBackground(Color.GREEN);
-                    else if (cell.isEnd()) btn.setBackground(Color.RED);
-                    else if (cell.isWall()) btn.setBackground(Color.DARK_GRAY);
-                    else if (pathSet.contains(cell)) btn.setBackground(Color.BLUE);
-                    else if (lastAffectedCells.contains(cell)) btn.setBackground(Color.ORANGE);
-                    else btn.setBackground(null);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    colorCell(cells[r][c], pathSet);
                 }
             }
+            dirtyCells.clear();
         };
         SwingUtilities.invokeLater(updateCellColors);
     }
 
+    private void colorCell(Cell cell, Set<Cell> pathSet) {
+        Color color;
+        if (cell.isStart()) color = Color.GREEN;
+        else if (cell.isEnd()) color = Color.RED;
+        else if (cell.isWall()) color = Color.DARK_GRAY;
+        else if (pathSet.contains(cell)) color = Color.BLUE;
+        else if (lastAffectedCells.get(cell.getIndex())) color = Color.ORANGE;
+        else color = TERRAIN_COLORS[Math.min(cell.getCost(), TERRAIN_MAX_COST)];
+        gridCanvas.setCellColor(cell.getRow(), cell.getCol(), color);
+    }
+
+    private void markAffected(int index) {
+        if (!lastAffectedCells.get(index)) {
+            lastAffectedCells.set(index);
+            dirtyCells.add(cells[index / cols][index % cols]);
+        }
+    }
+
+    // Only the cells the search opened or closed since the last update can have changed colour
+    private void updateDirtyCellColors() {
+        Set<Cell> noPath = Collections.emptySet();
+        for (Cell cell : dirtyCells) {
+            colorCell(cell, noPath);
+        }
+        dirtyCells.clear();
+    }
+
     private void onStart() {
+        stopAutoIterate();
         lastAffectedCells.clear();
         Cell start = null, end = null;
 
@@ -180,83 +269,213 @@ public class MainGUI extends JFrame {
             for (Cell cell : row) {
                 if (cell.isStart()) start = cell;
                 if (cell.isEnd()) end = cell;
-                cell.setVisited(false);
-                cell.setParent(null);
-                cell.setGCost(0);
-                cell.setHCost(0);
             }
         }
         if (start == null || end == null) return;
 
-        algo = switch (selectedAlgorithm) {
-            case "A*" -> new AStarAlgorithm();
-            case "Dijkstra" -> new DijkstraAlgorithm();
-            case "DFS" -> new DFSAlgorithm();
-            case "Greedy" -> new GreedyBestFirstAlgorithm();
-            case "Bidirectional" -> new BidirectionalSearchAlgorithm();
-            default -> new BFSAlgorithm();
-        };
+        algo = PathfindingAlgorithms.createInstrumented(selectedAlgorithm);
+        // Without corner cutting, diagonal moves connect nothing that is not already
+        // 4-connected, so the component labels still decide reachability
+        if (diagonalToggle.isSelected() && algo.supportsDiagonals()) {
+            algo.setMovement(GridTopology.Movement.EIGHT_NO_CORNER_CUTTING);
+        }
         algo.initialize(cells, start, end);
         algoInitialized = true;
+        startCell = start;
+        endCell = end;
         updateCellColors.run();
     }
 
     private void onRegenerate() {
+        stopAutoIterate();
         lastAffectedCells.clear();
         for (Cell[] row : cells) {
             for (Cell cell : row) {
                 cell.setStart(false);
                 cell.setEnd(false);
-                cell.setVisited(false);
-                cell.setParent(null);
-                cell.setWall(false);
             }
         }
+        grid.clearWalls();
         generateInitialMaze();
         updateCellColors.run();
     }
 
-    private void iterateStep() {
-        if (!algoInitialized || algo == null || algo.isFinished()) return;
-        lastAffectedCells.clear();
-
-        algo.step();
-        lastAffectedCells.addAll(algo.getFrontier());
-        lastAffectedCells.addAll(algo.getVisited());
-
-        if (algo.isFinished()) {
-            if (algo.getPath() != null) {
-                for (Cell cell : algo.getPath()) {
-                    if (!cell.isStart() && !cell.isEnd()) lastAffectedCells.add(cell);
+    // Left click toggles a wall, right click moves the end. D* Lite repairs its search in
+    // place and keeps auto-iterating; any other algorithm has to start over.
+    private void onCellClicked(Cell cell, boolean moveEnd) {
+        if (cell.isStart() || cell.isEnd()) return;
+        if (moveEnd && cell.isWall()) return;
+        boolean resume = autoToggle.isSelected();
+        // The grid may only be edited while no search is reading it
+        runner.cancel();
+        if (moveEnd) {
+            for (Cell[] row : cells) {
+                for (Cell other : row) {
+                    other.setEnd(false);
                 }
+            }
+            cell.setEnd(true);
+        } else {
+            cell.setWall(!cell.isWall());
+        }
+
+        if (algoInitialized && algo.getDelegate() instanceof DStarLiteAlgorithm) {
+            DStarLiteAlgorithm dStar = (DStarLiteAlgorithm) algo.getDelegate();
+            if (moveEnd) {
+                dStar.moveEnd(cell);
+                endCell = cell;
             } else {
-                JOptionPane.showMessageDialog(this, "No path found.");
+                dStar.updateCell(cell);
             }
-            stopAutoIterate();
+            lastAffectedCells.clear();
+            updateCellColors.run();
+            if (resume && unreachable()) {
+                autoToggle.setSelected(false);
+            } else if (resume) {
+                runner.start(algo, Long.MAX_VALUE, STEP_BUDGET_NANOS);
+            }
+        } else if (algoInitialized) {
+            onStart();
+        } else {
+            updateCellColors.run();
         }
+    }
+
+    private void onResize() {
+        JSpinner rowSpinner = new JSpinner(new SpinnerNumberModel(rows, 3, MAX_SIZE, 1));
+        JSpinner colSpinner = new JSpinner(new SpinnerNumberModel(cols, 3, MAX_SIZE, 1));
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        panel.add(new JLabel("Rows"));
+        panel.add(rowSpinner);
+        panel.add(new JLabel("Columns"));
+        panel.add(colSpinner);
+        int choice = JOptionPane.showConfirmDialog(this, panel, "Grid Size", JOptionPane.OK_CANCEL_OPTION);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        stopAutoIterate();
+        replaceGrid(new GridMap((Integer) rowSpinner.getValue(), (Integer) colSpinner.getValue()));
+        generateInitialMaze();
+        updateCellColors.run();
+    }
+
+    private void replaceGrid(GridMap newGrid) {
+        algo = null;
+        algoInitialized = false;
+        lastAffectedCells.clear();
+        dirtyCells.clear();
+        components.close();
+        grid = newGrid;
+        components = new ConnectedComponents(grid);
+        rows = grid.getRows();
+        cols = grid.getCols();
+
+        remove(gridCanvas);
+        gridCanvas = createGridCanvas();
+        add(gridCanvas, BorderLayout.CENTER);
+        mazeGenerator = new MazeGenerator(rows, cols);
+        revalidate();
+    }
+
+    // Opened grids are mapped copy-on-write, so edits never change the file
+    private void onOpenGrid() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        GridMap opened;
+        try {
+            Path path = chooser.getSelectedFile().toPath();
+            opened = path.toString().endsWith(".map") ? MovingAiReader.readMap(path) : GridFile.open(path);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not open grid: " + e.getMessage());
+            return;
+        }
+        if (opened.getRows() < 3 || opened.getCols() < 3 || opened.getRows() > MAX_SIZE || opened.getCols() > MAX_SIZE) {
+            JOptionPane.showMessageDialog(this, "Grids from 3x3 up to " + MAX_SIZE + "x" + MAX_SIZE
+                + " can be shown, this one is " + opened.getRows() + "x" + opened.getCols() + ".");
+            return;
+        }
+
+        stopAutoIterate();
+        replaceGrid(opened);
+        Cell start = cells[rows / 2][1];
+        Cell end = cells[rows / 2][cols - 2];
+        start.setWall(false);
+        end.setWall(false);
+        start.setStart(true);
+        end.setEnd(true);
         updateCellColors.run();
     }
 
+    private void onSaveGrid() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("grid.grid"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        stopAutoIterate();
+        try {
+            GridFile.write(grid, chooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not save grid: " + e.getMessage());
+        }
+    }
+
+    private void iterateStep() {
+        if (!canRun() || unreachable()) return;
+        runner.start(algo, 1, 0);
+    }
+
+    private boolean canRun() {
+        return algoInitialized && algo != null && !runner.isRunning() && !algo.isFinished();
+    }
+
+    // Answers from the component labels before any search starts when the end is walled off
+    private boolean unreachable() {
+        if (components.connected(startCell.getIndex(), endCell.getIndex())) return false;
+        JOptionPane.showMessageDialog(this, "No path found.");
+        return true;
+    }
+
+    private void showResult() {
+        if (algo.getPath() != null) {
+            for (Cell cell : algo.getPath()) {
+                if (!cell.isStart() && !cell.isEnd()) lastAffectedCells.set(cell.getIndex());
+            }
+            updateCellColors.run();
+        } else {
+            updateCellColors.run();
+            JOptionPane.showMessageDialog(this, "No path found.");
+        }
+    }
+
     private void toggleAutoIterate(JToggleButton toggle) {
         if (toggle.isSelected()) {
-            if (!algoInitialized || algo == null || algo.isFinished()) {
+            if (!canRun() || unreachable()) {
                 toggle.setSelected(false);
                 return;
             }
-            autoIterateTimer = new javax.swing.Timer(100, e -> iterateStep());
-            autoIterateTimer.start();
+            runner.start(algo, Long.MAX_VALUE, STEP_BUDGET_NANOS);
         } else {
             stopAutoIterate();
         }
     }
 
     private void stopAutoIterate() {
-        if (autoIterateTimer != null && autoIterateTimer.isRunning()) {
-            autoIterateTimer.stop();
-        }
+        runner.cancel();
+        if (autoToggle != null) autoToggle.setSelected(false);
+    }
+
+    // Runs the rest of the search at full speed, still showing progress about once a frame
+    private void onFinish() {
+        if (!algoInitialized || algo == null || algo.isFinished() || unreachable()) return;
+        autoToggle.setSelected(false);
+        runner.start(algo, Long.MAX_VALUE, 0);
     }
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(MainGUI::new);
+        if (args.length >= 2) {
+            int rows = Integer.parseInt(args[0]);
+            int cols = Integer.parseInt(args[1]);
+            SwingUtilities.invokeLater(() -> new MainGUI(rows, cols));
+        } else {
+            SwingUtilities.invokeLater(MainGUI::new);
+        }
     }
 }
@@ -0,0 +1,18 @@
+/**
+ * Manhattan distance. Every step costs at least 1, so it is a lower bound on any grid,
+ * but it knows nothing about walls and is far too low in mazes with long detours.
+ */
+public class ManhattanHeuristic implements Heuristic {
+    private final int cols;
+
+    public ManhattanHeuristic(int cols) {
+        this.cols = cols;
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int fromRow = from / cols;
+        int toRow = to / cols;
+        return Math.abs(fromRow - toRow) + Math.abs(from - fromRow * cols - (to - toRow * cols));
+    }
+}
@@ -1,58 +1,501 @@
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Generates walls and terrain costs. Generators made with a seed draw from a
+ * {@link SplittableRandom}, so the same seed, size and algorithm always give the same map.
+ *
+ * Work is done in primitive arrays, and the finished walls are written to the grid in one
+ * pass. Start and end cells are never walls. In the lattice mazes they are joined to the
+ * nearest passage.
+ */
 public class MazeGenerator {
+    public enum Algorithm {
+        /** Walls scattered along a random depth-first walk with the wall probability. Not a perfect maze. */
+        SCATTERED,
+        /** Perfect maze from a randomized depth-first search: long, winding corridors. */
+        BACKTRACKER,
+        /** Perfect maze from Kruskal's algorithm on shuffled walls: many short dead ends. */
+        KRUSKAL,
+        /** Perfect maze from Wilson's loop-erased random walks: uniform over all spanning trees. */
+        WILSON,
+        /** Perfect maze from Eller's algorithm, one row at a time. See {@link #writeEller}. */
+        ELLER,
+        /** Open caves from random fill and cellular automaton smoothing, computed in parallel tiles. */
+        CAVES
+    }
+
+    // Rows per parallel tile and smoothing passes for caves
+    private static final int TILE_ROWS = 64;
+    private static final int CAVE_PASSES = 4;
+
     private final int rows;
     private final int cols;
-    private final Random random = new Random();
+    private final double wallProbability;
+    private final SplittableRandom random;
 
     public MazeGenerator(int rows, int cols) {
+        this(rows, cols, 0.3, new SplittableRandom());
+    }
+
+    public MazeGenerator(int rows, int cols, double wallProbability, long seed) {
+        this(rows, cols, wallProbability, new SplittableRandom(seed));
+    }
+
+    private MazeGenerator(int rows, int cols, double wallProbability, SplittableRandom random) {
         this.rows = rows;
         this.cols = cols;
+        this.wallProbability = wallProbability;
+        this.random = random;
     }
 
     public void generateMaze(Cell[][] grid) {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                grid[r][c].setWall(false);
+        generate(grid, Algorithm.SCATTERED);
+    }
+
+    /**
+     * Replaces the walls of the grid behind {@code grid} with a new map and clears its
+     * costs. The lattice mazes put cells at odd rows and columns with walls between them,
+     * so odd dimensions use the whole grid.
+     */
+    public void generate(Cell[][] grid, Algorithm algorithm) {
+        GridMap map = grid[0][0].getGrid();
+        long[] walls = new long[GridMap.wordCount(rows, cols)];
+        switch (algorithm) {
+            case SCATTERED -> scattered(walls);
+            case BACKTRACKER -> backtracker(walls);
+            case KRUSKAL -> kruskal(walls);
+            case WILSON -> wilson(walls);
+            case ELLER -> {
+                int[] row = {0};
+                long[] target = walls;
+                try {
+                    eller(bits -> {
+                        for (int c = 0; c < cols; c++) {
+                            if ((bits[c >>> 6] & (1L << c)) != 0) setBit(target, row[0] * cols + c);
+                        }
+                        row[0]++;
+                    });
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            case CAVES -> caves(walls);
+        }
+
+        boolean lattice = algorithm != Algorithm.SCATTERED && algorithm != Algorithm.CAVES;
+        for (Cell[] line : grid) {
+            for (Cell cell : line) {
+                if (cell.isStart() || cell.isEnd()) keepOpen(walls, cell.getIndex(), lattice);
+            }
+        }
+        map.clearCosts();
+        map.clearWalls();
+        for (int i = 0, size = rows * cols; i < size; i++) {
+            if ((walls[i >>> 6] & (1L << i)) != 0) map.setWall(i, true);
+        }
+    }
+
+    /**
+     * Streams an Eller maze of this generator's size into a {@link GridFile}, one row at a
+     * time. Memory is a few ints per column whatever the row count, so the map can be
+     * larger than the heap. Start and end are not marked.
+     */
+    public void writeEller(Path path) throws IOException {
+        try (GridFile.RowWriter writer = GridFile.writeRows(path, rows, cols)) {
+            eller(writer::writeRow);
+        }
+    }
+
+    // Opens a start or end cell, and in a lattice maze joins it to a passage: directly, or
+    // through the cell between it and a passage two steps away in a straight line or
+    // diagonally. A cell at an even row and column has only diagonal lattice cells nearby.
+    private void keepOpen(long[] walls, int index, boolean lattice) {
+        clearBit(walls, index);
+        if (!lattice) return;
+        int row = index / cols;
+        int col = index % cols;
+        int[] dRow = {-1, 1, 0, 0};
+        int[] dCol = {0, 0, -1, 1};
+        for (int d = 0; d < 4; d++) {
+            int r = row + dRow[d];
+            int c = col + dCol[d];
+            if (r >= 0 && r < rows && c >= 0 && c < cols && !getBit(walls, r * cols + c)) return;
+        }
+        for (int d = 0; d < 4; d++) {
+            int r = row + 2 * dRow[d];
+            int c = col + 2 * dCol[d];
+            if (r >= 0 && r < rows && c >= 0 && c < cols && !getBit(walls, r * cols + c)) {
+                clearBit(walls, (row + dRow[d]) * cols + col + dCol[d]);
+                return;
+            }
+        }
+        for (int dr = -1; dr <= 1; dr += 2) {
+            for (int dc = -1; dc <= 1; dc += 2) {
+                int r = row + dr;
+                int c = col + dc;
+                if (r >= 0 && r < rows && c >= 0 && c < cols && !getBit(walls, r * cols + c)) {
+                    clearBit(walls, r * cols + col);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void scattered(long[] walls) {
+        boolean[] visited = new boolean[rows * cols];
+        int[] stack = new int[rows * cols];
+        int[] options = new int[4];
+        int top = 0;
+        int start = random.nextInt(rows) * cols + random.nextInt(cols);
+        visited[start] = true;
+        stack[top++] = start;
+        while (top > 0) {
+            int current = stack[top - 1];
+            int r = current / cols;
+            int c = current - r * cols;
+            int count = 0;
+            if (r > 0 && !visited[current - cols]) options[count++] = current - cols;
+            if (r < rows - 1 && !visited[current + cols]) options[count++] = current + cols;
+            if (c > 0 && !visited[current - 1]) options[count++] = current - 1;
+            if (c < cols - 1 && !visited[current + 1]) options[count++] = current + 1;
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int next = options[random.nextInt(count)];
+            visited[next] = true;
+            if (random.nextDouble() < wallProbability) setBit(walls, next);
+            stack[top++] = next;
+        }
+    }
+
+    // Lattice cells are numbered k = cellRow * cellCols + cellCol
+    private int cellRows() { return (rows - 1) / 2; }
+    private int cellCols() { return (cols - 1) / 2; }
+
+    private int gridIndex(int k) {
+        int cellCols = cellCols();
+        return (2 * (k / cellCols) + 1) * cols + 2 * (k % cellCols) + 1;
+    }
+
+    // Carves lattice cell k and the wall between it and lattice cell from
+    private void carve(long[] walls, int from, int k) {
+        int index = gridIndex(k);
+        clearBit(walls, index);
+        if (from >= 0) clearBit(walls, (gridIndex(from) + index) >>> 1);
+    }
+
+    private void backtracker(long[] walls) {
+        Arrays.fill(walls, -1L);
+        int cellCols = cellCols();
+        int cells = cellRows() * cellCols;
+        if (cells == 0) return;
+        int[] stack = new int[cells];
+        int[] options = new int[4];
+        int top = 0;
+        int start = random.nextInt(cells);
+        carve(walls, -1, start);
+        stack[top++] = start;
+        while (top > 0) {
+            int k = stack[top - 1];
+            int r = k / cellCols;
+            int c = k - r * cellCols;
+            int count = 0;
+            if (r > 0 && getBit(walls, gridIndex(k - cellCols))) options[count++] = k - cellCols;
+            if (k + cellCols < cells && getBit(walls, gridIndex(k + cellCols))) options[count++] = k + cellCols;
+            if (c > 0 && getBit(walls, gridIndex(k - 1))) options[count++] = k - 1;
+            if (c < cellCols - 1 && getBit(walls, gridIndex(k + 1))) options[count++] = k + 1;
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int next = options[random.nextInt(count)];
+            carve(walls, k, next);
+            stack[top++] = next;
+        }
+    }
+
+    private void kruskal(long[] walls) {
+        Arrays.fill(walls, -1L);
+        int cellCols = cellCols();
+        int cells = cellRows() * cellCols;
+        if (cells == 0) return;
+        // Edge e joins cell e >>> 1 to its right neighbour if e is even, else to the one below
+        int[] edges = new int[2 * cells];
+        int count = 0;
+        for (int k = 0; k < cells; k++) {
+            carve(walls, -1, k);
+            if (k % cellCols < cellCols - 1) edges[count++] = k << 1;
+            if (k + cellCols < cells) edges[count++] = (k << 1) | 1;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+        int[] parent = new int[cells];
+        for (int k = 0; k < cells; k++) {
+            parent[k] = k;
+        }
+        for (int i = 0; i < count; i++) {
+            int a = edges[i] >>> 1;
+            int b = (edges[i] & 1) == 0 ? a + 1 : a + cellCols;
+            int rootA = find(parent, a);
+            int rootB = find(parent, b);
+            if (rootA == rootB) continue;
+            parent[rootB] = rootA;
+            carve(walls, a, b);
+        }
+    }
+
+    private static int find(int[] parent, int k) {
+        while (parent[k] != k) {
+            parent[k] = parent[parent[k]];
+            k = parent[k];
+        }
+        return k;
+    }
+
+    private void wilson(long[] walls) {
+        Arrays.fill(walls, -1L);
+        int cellRows = cellRows();
+        int cellCols = cellCols();
+        int cells = cellRows * cellCols;
+        if (cells == 0) return;
+        boolean[] inMaze = new boolean[cells];
+        int[] next = new int[cells];
+        int first = random.nextInt(cells);
+        inMaze[first] = true;
+        carve(walls, -1, first);
+        for (int origin = 0; origin < cells; origin++) {
+            if (inMaze[origin]) continue;
+            // Walk until the maze is hit; overwriting next[] erases any loops
+            for (int k = origin; !inMaze[k]; k = next[k]) {
+                next[k] = randomNeighbor(k, cellRows, cellCols);
+            }
+            for (int k = origin; !inMaze[k]; k = next[k]) {
+                inMaze[k] = true;
+                carve(walls, -1, k);
+                carve(walls, k, next[k]);
+            }
+        }
+    }
+
+    private int randomNeighbor(int k, int cellRows, int cellCols) {
+        int r = k / cellCols;
+        int c = k - r * cellCols;
+        while (true) {
+            switch (random.nextInt(4)) {
+                case 0 -> { if (r > 0) return k - cellCols; }
+                case 1 -> { if (r < cellRows - 1) return k + cellCols; }
+                case 2 -> { if (c > 0) return k - 1; }
+                default -> { if (c < cellCols - 1) return k + 1; }
             }
         }
+    }
+
+    private interface RowSink {
+        /** Receives the next grid row: bit c of {@code walls[c >>> 6]} is set if column c is a wall. */
+        void accept(long[] walls) throws IOException;
+    }
+
+    // Keeps one row of set labels. Each row joins neighbours in different sets at random,
+    // then every set sends at least one passage down. The last row joins all remaining sets.
+    private void eller(RowSink sink) throws IOException {
+        int cellRows = cellRows();
+        int width = cellCols();
+        int words = (cols + 63) >>> 6;
+        long[] line = new long[words];
+        int[] set = new int[width];
+        int[] parent = new int[width];
+        int[] remaining = new int[width];
+        boolean[] hasDown = new boolean[width];
+        boolean[] down = new boolean[width];
+        boolean[] used = new boolean[width];
+        for (int c = 0; c < width; c++) {
+            set[c] = c;
+        }
 
-        boolean[][] visited = new boolean[rows][cols];
-        Stack<Cell> stack = new Stack<>();
+        Arrays.fill(line, -1L);
+        sink.accept(line);
+        int emitted = 1;
+        for (int i = 0; i < cellRows; i++) {
+            boolean last = i == cellRows - 1;
+            for (int s = 0; s < width; s++) {
+                parent[s] = s;
+            }
+            Arrays.fill(line, -1L);
+            for (int c = 0; c < width; c++) {
+                clearBit(line, 2 * c + 1);
+            }
+            for (int c = 0; c + 1 < width; c++) {
+                int a = find(parent, set[c]);
+                int b = find(parent, set[c + 1]);
+                if (a != b && (last || random.nextBoolean())) {
+                    parent[b] = a;
+                    clearBit(line, 2 * c + 2);
+                }
+            }
+            for (int c = 0; c < width; c++) {
+                set[c] = find(parent, set[c]);
+            }
+            sink.accept(line);
+            emitted++;
+            if (last) break;
 
-        Cell start = grid[random.nextInt(rows)][random.nextInt(cols)];
-        visited[start.getRow()][start.getCol()] = true;
-        stack.push(start);
+            Arrays.fill(remaining, 0);
+            Arrays.fill(hasDown, false);
+            for (int c = 0; c < width; c++) {
+                remaining[set[c]]++;
+            }
+            Arrays.fill(line, -1L);
+            for (int c = 0; c < width; c++) {
+                int s = set[c];
+                remaining[s]--;
+                down[c] = random.nextBoolean() || (remaining[s] == 0 && !hasDown[s]);
+                if (down[c]) {
+                    hasDown[s] = true;
+                    clearBit(line, 2 * c + 1);
+                }
+            }
+            sink.accept(line);
+            emitted++;
 
-        while (!stack.isEmpty()) {
-            Cell current = stack.peek();
-            List<Cell> neighbors = getUnvisitedNeighbors(current, grid, visited);
+            // Cells below a passage stay in their set, the rest start new ones
+            Arrays.fill(used, false);
+            for (int c = 0; c < width; c++) {
+                if (down[c]) used[set[c]] = true;
+            }
+            int free = 0;
+            for (int c = 0; c < width; c++) {
+                if (down[c]) continue;
+                while (used[free]) free++;
+                set[c] = free;
+                used[free] = true;
+            }
+        }
+        Arrays.fill(line, -1L);
+        for (; emitted < rows; emitted++) {
+            sink.accept(line);
+        }
+    }
 
-            if (!neighbors.isEmpty()) {
-                Cell next = neighbors.get(random.nextInt(neighbors.size()));
-                visited[next.getRow()][next.getCol()] = true;
+    private void caves(long[] walls) {
+        byte[] filled = new byte[rows * cols];
+        int tiles = (rows + TILE_ROWS - 1) / TILE_ROWS;
+        // Split the tile streams up front, in tile order, so the map does not depend on scheduling
+        SplittableRandom[] tileRandoms = new SplittableRandom[tiles];
+        for (int t = 0; t < tiles; t++) {
+            tileRandoms[t] = random.split();
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        pool.invoke(new Tiles(0, tiles, (from, to, tile) -> {
+            SplittableRandom tileRandom = tileRandoms[tile];
+            for (int i = from * cols; i < to * cols; i++) {
+                filled[i] = (byte) (tileRandom.nextDouble() < wallProbability ? 1 : 0);
+            }
+        }));
+        byte[] current = filled;
+        byte[] next = new byte[rows * cols];
+        for (int pass = 0; pass < CAVE_PASSES; pass++) {
+            byte[] source = current;
+            byte[] target = next;
+            pool.invoke(new Tiles(0, tiles, (from, to, tile) -> smooth(source, target, from, to)));
+            next = current;
+            current = target;
+        }
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != 0) setBit(walls, i);
+        }
+    }
 
-                if (random.nextDouble() < 0.3 && !next.isStart() && !next.isEnd()) {
-                    next.setWall(true);
+    // A cell becomes a wall when at least 5 of the 9 cells around it, itself included, are
+    // walls. Cells off the edge count as walls, which closes the caves off at the border.
+    private void smooth(byte[] source, byte[] target, int fromRow, int toRow) {
+        for (int r = fromRow; r < toRow; r++) {
+            for (int c = 0; c < cols; c++) {
+                int count = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    int nr = r + dr;
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nc = c + dc;
+                        if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) count++;
+                        else count += source[nr * cols + nc];
+                    }
                 }
+                target[r * cols + c] = (byte) (count >= 5 ? 1 : 0);
+            }
+        }
+    }
 
-                stack.push(next);
-            } else {
-                stack.pop();
+    private interface TileTask {
+        void run(int fromRow, int toRow, int tile);
+    }
+
+    @SuppressWarnings("serial") // never serialized: holds the enclosing generator
+    private final class Tiles extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final TileTask task;
+
+        Tiles(int from, int to, TileTask task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Tiles(from, mid, task), new Tiles(mid, to, task));
+                return;
             }
+            task.run(from * TILE_ROWS, Math.min(rows, (from + 1) * TILE_ROWS), from);
         }
     }
 
-    private List<Cell> getUnvisitedNeighbors(Cell cell, Cell[][] grid, boolean[][] visited) {
-        int r = cell.getRow();
-        int c = cell.getCol();
-        List<Cell> neighbors = new ArrayList<>();
+    private static boolean getBit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void setBit(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
 
-        if (r > 0 && !visited[r - 1][c]) neighbors.add(grid[r - 1][c]);
-        if (r < rows - 1 && !visited[r + 1][c]) neighbors.add(grid[r + 1][c]);
-        if (c > 0 && !visited[r][c - 1]) neighbors.add(grid[r][c - 1]);
-        if (c < cols - 1 && !visited[r][c + 1]) neighbors.add(grid[r][c + 1]);
+    private static void clearBit(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
 
-        return neighbors;
+    /**
+     * Covers the grid with round patches of rough terrain, like mud or water, each with a
+     * movement cost from 2 to {@code maxCost}. Cells outside every patch keep cost 1.
+     * Later patches overlap earlier ones.
+     */
+    public void generateTerrain(Cell[][] grid, int maxCost) {
+        if (maxCost < 2) return;
+        GridMap map = grid[0][0].getGrid();
+        int patches = Math.max(1, rows * cols / 150);
+        for (int p = 0; p < patches; p++) {
+            int centerRow = random.nextInt(rows);
+            int centerCol = random.nextInt(cols);
+            int radius = 1 + random.nextInt(6);
+            int cost = 2 + random.nextInt(maxCost - 1);
+            for (int r = Math.max(0, centerRow - radius); r <= Math.min(rows - 1, centerRow + radius); r++) {
+                for (int c = Math.max(0, centerCol - radius); c <= Math.min(cols - 1, centerCol + radius); c++) {
+                    int dr = r - centerRow;
+                    int dc = c - centerCol;
+                    if (dr * dr + dc * dc <= radius * radius) {
+                        map.setCost(r, c, cost);
+                    }
+                }
+            }
+        }
     }
 }
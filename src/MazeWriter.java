@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes a perfect maze straight to a binary {@link GridFile} with Eller's algorithm,
+ * one row at a time. Memory stays at a few ints per column whatever the row count, so
+ * the maze may be far larger than the heap. Open it again with --map in
+ * {@link HeadlessRunner}, which memory-maps it.
+ *
+ * Usage: java MazeWriter --out maze.grid [--rows 4097] [--cols 4097] [--seed 42]
+ */
+public class MazeWriter {
+    private static final Map<String, String> DEFAULTS = Map.of(
+        "out", "",
+        "rows", "4097",
+        "cols", "4097",
+        "seed", "42"
+    );
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (options.get("out").isEmpty()) {
+            throw new IllegalArgumentException("--out is required");
+        }
+        Path out = Path.of(options.get("out"));
+        int rows = Integer.parseInt(options.get("rows"));
+        int cols = Integer.parseInt(options.get("cols"));
+
+        long begin = System.nanoTime();
+        new MazeGenerator(rows, cols, 0, Long.parseLong(options.get("seed"))).writeEller(out);
+        System.out.printf("wrote %dx%d maze to %s, %d bytes, in %.1f ms%n", rows, cols, out, Files.size(out),
+            (System.nanoTime() - begin) / 1e6);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (key == null || !DEFAULTS.containsKey(key) || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown or incomplete option: " + args[i]);
+            }
+            options.put(key, args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,78 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for the MovingAI grid benchmark formats (movingai.com/benchmarks).
+ * Maps are read line by line straight into a {@link GridMap}, never holding the text.
+ *
+ * In a {@code .map} file '.', 'G' and 'S' (swamp) are passable. Everything else, such
+ * as '@', 'O', 'T' and 'W', is treated as a wall.
+ */
+public final class MovingAiReader {
+    private MovingAiReader() {}
+
+    public static GridMap readMap(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            int height = -1;
+            int width = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts[0].equals("map")) break;
+                if (parts.length < 2) continue;
+                switch (parts[0]) {
+                    case "height" -> height = Integer.parseInt(parts[1]);
+                    case "width" -> width = Integer.parseInt(parts[1]);
+                    default -> { }
+                }
+            }
+            if (line == null || height <= 0 || width <= 0) {
+                throw new IOException("Missing map header in " + path);
+            }
+
+            GridMap grid = new GridMap(height, width);
+            for (int row = 0; row < height; row++) {
+                line = reader.readLine();
+                if (line == null || line.length() < width) {
+                    throw new IOException("Map row " + row + " is missing or shorter than " + width + " in " + path);
+                }
+                for (int col = 0; col < width; col++) {
+                    char c = line.charAt(col);
+                    if (c != '.' && c != 'G' && c != 'S') {
+                        grid.setWall(row, col, true);
+                    }
+                }
+            }
+            return grid;
+        }
+    }
+
+    public static List<Scenario> readScenarios(Path path) throws IOException {
+        List<Scenario> scenarios = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("version")) continue;
+                // Fields are tab-separated, which lets map names contain spaces
+                String[] parts = line.contains("\t") ? line.split("\t") : line.trim().split("\\s+");
+                if (parts.length < 9) {
+                    throw new IOException("Malformed scenario line in " + path + ": " + line);
+                }
+                scenarios.add(new Scenario(
+                    Integer.parseInt(parts[0]),
+                    parts[1],
+                    Integer.parseInt(parts[4]),
+                    Integer.parseInt(parts[5]),
+                    Integer.parseInt(parts[6]),
+                    Integer.parseInt(parts[7]),
+                    Double.parseDouble(parts[8])));
+            }
+        }
+        return scenarios;
+    }
+}
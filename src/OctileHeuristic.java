@@ -0,0 +1,26 @@
+/**
+ * Octile distance for 8-connected movement: as many diagonal moves as the smaller of the
+ * row and column differences, and straight moves for the rest. On an open grid with
+ * unit cell costs it is the exact cost.
+ */
+public class OctileHeuristic implements Heuristic {
+    private final int cols;
+    private final int straightCost;
+    private final int diagonalCost;
+
+    public OctileHeuristic(int cols, int straightCost, int diagonalCost) {
+        this.cols = cols;
+        this.straightCost = straightCost;
+        this.diagonalCost = diagonalCost;
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int fromRow = from / cols;
+        int toRow = to / cols;
+        int dRow = Math.abs(fromRow - toRow);
+        int dCol = Math.abs(from - fromRow * cols - (to - toRow * cols));
+        int diagonal = Math.min(dRow, dCol);
+        return diagonal * diagonalCost + (Math.max(dRow, dCol) - diagonal) * straightCost;
+    }
+}
@@ -0,0 +1,310 @@
+import java.nio.LongBuffer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous BFS that splits every level across a {@link ForkJoinPool}. Each
+ * {@link #step()} expands one whole level.
+ *
+ * Small levels run top-down: the frontier is cut into chunks, and each chunk claims its
+ * unvisited neighbours with a CAS on a shared visited bitset. Once the frontier is large
+ * compared to the cells left to visit, levels run bottom-up instead. Each chunk of the
+ * bitset checks its own unvisited cells for a neighbour on the frontier, so no CAS is
+ * needed and most of the grid is never touched twice. It switches back to top-down when
+ * the frontier shrinks again.
+ *
+ * The search keeps the distance of every reached cell. With no end cell it labels the
+ * whole reachable area, which makes it a single-source distance map; see
+ * {@link #getDistance(int)}. The path is rebuilt from the distances, so no parents are
+ * stored.
+ */
+public class ParallelBFSAlgorithm implements PathfindingAlgorithm {
+    // Direction switching factors, after Beamer et al., "Direction-Optimizing BFS"
+    private static final int TOP_DOWN_TO_BOTTOM_UP = 14;
+    private static final int BOTTOM_UP_TO_TOP_DOWN = 24;
+    private static final int TOP_DOWN_GRAIN = 1024;
+    private static final int BOTTOM_UP_GRAIN_WORDS = 1024;
+
+    private final ForkJoinPool pool;
+
+    private Cell[][] cells;
+    private GridMap grid;
+    private int rows;
+    private int cols;
+    private int size;
+    private int end;
+    private int[] distance;
+    private AtomicLongArray visited;
+    private int[] frontier;
+    private int frontierCount;
+    private int level;
+    private boolean bottomUp;
+    private long unvisited;
+    private boolean finished;
+    private List<Cell> path;
+    private int expanded;
+    private StepListener listener;
+
+    public ParallelBFSAlgorithm() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelBFSAlgorithm(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void initialize(Cell[][] grid, Cell start, Cell end) {
+        this.cells = grid;
+        initialize(start.getGrid(), start.getIndex(), end == null ? -1 : end.getIndex());
+    }
+
+    /**
+     * Starts a search straight on a grid, without a Cell view. With {@code end} of -1 the
+     * search runs until every reachable cell has a distance.
+     */
+    public void initialize(GridMap grid, int start, int end) {
+        if (cells != null && cells[0][0].getGrid() != grid) cells = null;
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.size = rows * cols;
+        this.end = end;
+        if (distance == null || distance.length != size) {
+            distance = new int[size];
+            visited = new AtomicLongArray((size + 63) >>> 6);
+        } else {
+            for (int i = 0; i < visited.length(); i++) visited.set(i, 0L);
+        }
+        Arrays.fill(distance, -1);
+
+        long walls = 0;
+        LongBuffer wallWords = grid.wallWords();
+        for (int i = 0; i < visited.length(); i++) walls += Long.bitCount(wallWords.get(i));
+        unvisited = size - walls - 1;
+
+        distance[start] = 0;
+        visited.set(start >>> 6, 1L << start);
+        frontier = new int[] {start};
+        frontierCount = 1;
+        level = 0;
+        bottomUp = false;
+        finished = false;
+        path = null;
+        expanded = 0;
+        if (listener != null) listener.cellOpened(cellAt(start));
+    }
+
+    @Override
+    public boolean step() {
+        if (finished) return true;
+        expanded += frontierCount;
+        if (listener != null) {
+            for (int i = 0; i < frontierCount; i++) listener.cellClosed(cellAt(frontier[i]));
+        }
+        if (end >= 0 && distance[end] == level) {
+            finished = true;
+            path = buildPath();
+            return true;
+        }
+
+        // Bottom-up costs a pass over the bitset plus a check of every unvisited cell
+        long bottomUpWork = unvisited + visited.length();
+        if (!bottomUp && (long) frontierCount * TOP_DOWN_TO_BOTTOM_UP > bottomUpWork) {
+            bottomUp = true;
+        } else if (bottomUp && (long) frontierCount * BOTTOM_UP_TO_TOP_DOWN < bottomUpWork) {
+            bottomUp = false;
+        }
+        int work = bottomUp ? visited.length() : frontierCount;
+        int grain = bottomUp ? BOTTOM_UP_GRAIN_WORDS : TOP_DOWN_GRAIN;
+        int[][] found = new int[(work + grain - 1) / grain][];
+        pool.invoke(new Chunks(0, found.length, grain, found));
+
+        int total = 0;
+        for (int[] chunk : found) total += chunk[0];
+        int[] next = new int[total];
+        int at = 0;
+        for (int[] chunk : found) {
+            System.arraycopy(chunk, 1, next, at, chunk[0]);
+            at += chunk[0];
+        }
+        frontier = next;
+        frontierCount = total;
+        unvisited -= total;
+        level++;
+        if (listener != null) {
+            for (int i = 0; i < frontierCount; i++) listener.cellOpened(cellAt(frontier[i]));
+        }
+        if (frontierCount == 0) finished = true;
+        return finished;
+    }
+
+    /** Expands chunks {@code [from, to)} of the level, halving the range until it is one chunk. */
+    @SuppressWarnings("serial") // never serialized: holds the enclosing algorithm
+    private final class Chunks extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final int[][] found;
+
+        Chunks(int from, int to, int grain, int[][] found) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunks(from, mid, grain, found), new Chunks(mid, to, grain, found));
+                return;
+            }
+            found[from] = bottomUp
+                ? bottomUpChunk(from * grain, Math.min(visited.length(), (from + 1) * grain))
+                : topDownChunk(from * grain, Math.min(frontierCount, (from + 1) * grain));
+        }
+    }
+
+    // Results are returned as {count, cells...}
+    private int[] topDownChunk(int from, int to) {
+        int[] out = new int[1 + Math.min(4 * (to - from), 256)];
+        int count = 0;
+        int nextLevel = level + 1;
+        for (int i = from; i < to; i++) {
+            int index = frontier[i];
+            int row = index / cols;
+            int col = index - row * cols;
+            for (int d = 0; d < 4; d++) {
+                int neighbor;
+                if (d == 0) { if (row == 0) continue; neighbor = index - cols; }
+                else if (d == 1) { if (row == rows - 1) continue; neighbor = index + cols; }
+                else if (d == 2) { if (col == 0) continue; neighbor = index - 1; }
+                else { if (col == cols - 1) continue; neighbor = index + 1; }
+                if (grid.isWall(neighbor) || !claim(neighbor)) continue;
+                distance[neighbor] = nextLevel;
+                if (++count == out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[count] = neighbor;
+            }
+        }
+        out[0] = count;
+        return out;
+    }
+
+    private boolean claim(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = visited.get(word);
+            if ((current & bit) != 0) return false;
+            if (visited.compareAndSet(word, current, current | bit)) return true;
+        }
+    }
+
+    // Each chunk owns whole words of the visited bitset, so it can set its bits without a CAS
+    private int[] bottomUpChunk(int fromWord, int toWord) {
+        int[] out = new int[257];
+        int count = 0;
+        int nextLevel = level + 1;
+        LongBuffer walls = grid.wallWords();
+        for (int w = fromWord; w < toWord; w++) {
+            long candidates = ~visited.get(w) & ~walls.get(w);
+            if (w == visited.length() - 1 && (size & 63) != 0) candidates &= (1L << size) - 1;
+            long claimed = 0;
+            while (candidates != 0) {
+                long bit = candidates & -candidates;
+                candidates ^= bit;
+                int index = (w << 6) + Long.numberOfTrailingZeros(bit);
+                if (!touchesLevel(index)) continue;
+                claimed |= bit;
+                distance[index] = nextLevel;
+                if (++count == out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[count] = index;
+            }
+            if (claimed != 0) visited.set(w, visited.get(w) | claimed);
+        }
+        out[0] = count;
+        return out;
+    }
+
+    private boolean touchesLevel(int index) {
+        int row = index / cols;
+        int col = index - row * cols;
+        return (row > 0 && distance[index - cols] == level)
+            || (row < rows - 1 && distance[index + cols] == level)
+            || (col > 0 && distance[index - 1] == level)
+            || (col < cols - 1 && distance[index + 1] == level);
+    }
+
+    // Walks back from the end, each time to a neighbour one level closer to the start
+    private List<Cell> buildPath() {
+        Cell[] result = new Cell[level + 1];
+        int current = end;
+        for (int d = level; d >= 0; d--) {
+            result[d] = cellAt(current);
+            if (d == 0) break;
+            int row = current / cols;
+            int col = current - row * cols;
+            if (row > 0 && distance[current - cols] == d - 1) current -= cols;
+            else if (row < rows - 1 && distance[current + cols] == d - 1) current += cols;
+            else if (col > 0 && distance[current - 1] == d - 1) current -= 1;
+            else current += 1;
+        }
+        return Arrays.asList(result);
+    }
+
+    private Cell cellAt(int index) {
+        int row = index / cols;
+        int col = index - row * cols;
+        return cells != null ? cells[row][col] : new Cell(grid, row, col);
+    }
+
+    /** Distance in steps from the start to a cell, or -1 if the search has not reached it. */
+    public int getDistance(int index) {
+        return distance[index];
+    }
+
+    /** Whether the last level ran bottom-up. */
+    public boolean isBottomUp() {
+        return bottomUp;
+    }
+
+    @Override
+    public List<Cell> getPath() {
+        return path;
+    }
+
+    @Override
+    public Set<Cell> getFrontier() {
+        Set<Cell> result = new HashSet<>();
+        for (int i = 0; i < frontierCount; i++) result.add(cellAt(frontier[i]));
+        return result;
+    }
+
+    @Override
+    public Set<Cell> getVisited() {
+        Set<Cell> result = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (distance[i] >= 0 && distance[i] < level) result.add(cellAt(i));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return expanded;
+    }
+}
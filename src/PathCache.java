@@ -0,0 +1,266 @@
+import java.util.*;
+
+/**
+ * LRU cache of path results for one {@link GridMap}, keyed by algorithm, start and end.
+ * It is bounded both by entry count and by the total number of cells stored across all
+ * cached paths.
+ *
+ * The cache listens for wall edits on its grid, so it never returns a path through a
+ * wall. A new wall drops only the cached paths that pass through that cell. Adding a
+ * wall cannot shorten any route, so every other entry stays valid. A removed wall drops
+ * cached "no path" results and any path longer than its Manhattan distance, since
+ * those could now be improved. Terrain costs follow the same rules: a higher cost drops
+ * the paths through that cell, and a lower one drops every path that costs more than its
+ * Manhattan distance. Entries are also tagged with the grid version they were computed
+ * at, so a result computed while the grid was being edited is never stored.
+ *
+ * The cache is thread-safe. Misses are solved outside the lock with per-thread solvers.
+ */
+public class PathCache implements GridListener {
+    private static final int[] NO_PATH = new int[0];
+
+    private final GridMap grid;
+    private final int maxEntries;
+    private final long maxCells;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ThreadLocal<Map<String, GridSolver>> solvers = ThreadLocal.withInitial(HashMap::new);
+    private long cachedCells;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public PathCache(GridMap grid, int maxEntries, long maxCells) {
+        this.grid = grid;
+        this.maxEntries = maxEntries;
+        this.maxCells = maxCells;
+        grid.addListener(this);
+    }
+
+    /**
+     * Returns the path for the query from the cache, or solves and caches it with the
+     * named algorithm. Each call returns its own copy, so callers may modify it.
+     */
+    public int[] findPath(String algorithm, int start, int end) {
+        return findPath(algorithm, start, end, null);
+    }
+
+    /**
+     * Like {@link #findPath(String, int, int)}, but solves a miss with the caller's solver,
+     * which must be one for the named algorithm, instead of one owned by this cache.
+     */
+    public int[] findPath(String algorithm, int start, int end, GridSolver solver) {
+        Key key = new Key(algorithm, start, end);
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.path == NO_PATH ? null : entry.path.clone();
+            }
+            misses++;
+            version = grid.getVersion();
+        }
+        if (solver == null) solver = solvers.get().computeIfAbsent(algorithm, GridSolvers::create);
+        int[] path = solver.solve(grid, start, end);
+        store(key, path == null ? null : path.clone(), version);
+        return path;
+    }
+
+    /** Cell-based variant for the step-based algorithms, solved with {@link PathfindingAlgorithm#solve()} on a miss. */
+    public List<Cell> findPath(String algorithm, Cell[][] cells, Cell start, Cell end) {
+        Key key = new Key(algorithm, start.getIndex(), end.getIndex());
+        int[] path;
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return toCells(cells, entry.path);
+            }
+            misses++;
+            version = grid.getVersion();
+        }
+        PathfindingAlgorithm algo = PathfindingAlgorithms.create(algorithm);
+        algo.initialize(cells, start, end);
+        List<Cell> result = algo.solve();
+        if (result == null) {
+            path = null;
+        } else {
+            path = new int[result.size()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = result.get(i).getIndex();
+            }
+        }
+        store(key, path, version);
+        return result;
+    }
+
+    private synchronized void store(Key key, int[] path, long version) {
+        if (version != grid.getVersion()) return;
+        Entry entry = new Entry(path == null ? NO_PATH : path, grid);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) cachedCells -= previous.path.length;
+        cachedCells += entry.path.length;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || cachedCells > maxCells) && eldest.hasNext()) {
+            cachedCells -= eldest.next().path.length;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized void wallChanged(int index, boolean wall) {
+        int row = grid.row(index);
+        int col = grid.col(index);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            Entry entry = e.getValue();
+            boolean stale = wall
+                ? entry.mayContain(row, col) && entry.contains(index)
+                : entry.path == NO_PATH || entry.cost > manhattan(e.getKey().start, e.getKey().end);
+            if (stale) {
+                cachedCells -= entry.path.length;
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void costChanged(int index, int oldCost, int newCost) {
+        int row = grid.row(index);
+        int col = grid.col(index);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            Entry entry = e.getValue();
+            // Costs never change which cells are reachable, so "no path" results stay valid
+            boolean stale = entry.path != NO_PATH && (newCost > oldCost
+                ? entry.mayContain(row, col) && entry.contains(index)
+                : entry.cost > manhattan(e.getKey().start, e.getKey().end));
+            if (stale) {
+                cachedCells -= entry.path.length;
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void costsCleared() {
+        invalidations += entries.size();
+        clear();
+    }
+
+    @Override
+    public synchronized void wallsCleared() {
+        invalidations += entries.size();
+        clear();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cachedCells = 0;
+    }
+
+    /** Stops listening to the grid. The cache must not be used afterwards. */
+    public void close() {
+        grid.removeListener(this);
+        clear();
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getCachedCells() { return cachedCells; }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+    public synchronized long getInvalidationCount() { return invalidations; }
+
+    private int manhattan(int a, int b) {
+        return Math.abs(grid.row(a) - grid.row(b)) + Math.abs(grid.col(a) - grid.col(b));
+    }
+
+    private static List<Cell> toCells(Cell[][] cells, int[] path) {
+        if (path == NO_PATH) return null;
+        int cols = cells[0].length;
+        List<Cell> result = new ArrayList<>(path.length);
+        for (int index : path) {
+            result.add(cells[index / cols][index % cols]);
+        }
+        return result;
+    }
+
+    private static final class Key {
+        final String algorithm;
+        final int start;
+        final int end;
+
+        Key(String algorithm, int start, int end) {
+            this.algorithm = algorithm;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return start == other.start && end == other.end && algorithm.equals(other.algorithm);
+        }
+
+        @Override
+        public int hashCode() {
+            return (algorithm.hashCode() * 31 + start) * 31 + end;
+        }
+    }
+
+    private static final class Entry {
+        final int[] path;
+        // Total cost of the moves along the path
+        final long cost;
+        // Bounding box of the path, to skip most entries cheaply when a wall is added
+        final int minRow;
+        final int maxRow;
+        final int minCol;
+        final int maxCol;
+
+        Entry(int[] path, GridMap grid) {
+            this.path = path;
+            int cols = grid.getCols();
+            long total = 0;
+            for (int i = 1; i < path.length; i++) {
+                total += grid.getCost(path[i]);
+            }
+            this.cost = total;
+            int r0 = Integer.MAX_VALUE, r1 = -1, c0 = Integer.MAX_VALUE, c1 = -1;
+            for (int index : path) {
+                int r = index / cols;
+                int c = index % cols;
+                r0 = Math.min(r0, r);
+                r1 = Math.max(r1, r);
+                c0 = Math.min(c0, c);
+                c1 = Math.max(c1, c);
+            }
+            this.minRow = r0;
+            this.maxRow = r1;
+            this.minCol = c0;
+            this.maxCol = c1;
+        }
+
+        boolean mayContain(int row, int col) {
+            return row >= minRow && row <= maxRow && col >= minCol && col <= maxCol;
+        }
+
+        boolean contains(int index) {
+            for (int cell : path) {
+                if (cell == index) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * A single start/end pair, as cell indices into a {@link GridMap}.
+ */
+public final class PathQuery {
+    private final int start;
+    private final int end;
+
+    public PathQuery(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() { return start; }
+    public int getEnd() { return end; }
+}
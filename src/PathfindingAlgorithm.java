@@ -8,4 +8,52 @@ public interface PathfindingAlgorithm {
     Set<Cell> getFrontier();
     Set<Cell> getVisited();
     boolean isFinished();
+    int getNodesExpanded();
+
+    /**
+     * Reports the cells each step opens and closes, or stops reporting if {@code listener}
+     * is null. Set it before {@link #initialize} to also hear about the start cell.
+     */
+    void setStepListener(StepListener listener);
+
+    /**
+     * Sets how searches initialized afterwards may move between cells. Algorithms built
+     * around four directions, such as JPS and D* Lite, only accept
+     * {@link GridTopology.Movement#FOUR}.
+     */
+    default void setMovement(GridTopology.Movement movement) {
+        if (movement != GridTopology.Movement.FOUR) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " only moves in four directions");
+        }
+    }
+
+    /** Whether {@link #setMovement} accepts diagonal movement. */
+    default boolean supportsDiagonals() {
+        return false;
+    }
+
+    /**
+     * Turns the frontier and visited bookkeeping that only the GUI needs on or off.
+     * {@link #solve()} turns it off while it runs. Algorithms without such bookkeeping
+     * ignore it.
+     */
+    default void setTrackVisualization(boolean track) {
+    }
+
+    /**
+     * Runs the search to completion and returns the path, or null if there is none.
+     * Visualization tracking is off while it runs, so {@link #getFrontier()} and
+     * {@link #getVisited()} are not meaningful afterwards.
+     */
+    default List<Cell> solve() {
+        setTrackVisualization(false);
+        try {
+            while (!step()) {
+                // run to completion
+            }
+        } finally {
+            setTrackVisualization(true);
+        }
+        return getPath();
+    }
 }
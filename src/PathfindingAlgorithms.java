@@ -0,0 +1,28 @@
+/**
+ * Creates step-based {@link PathfindingAlgorithm}s by the algorithm names the GUI uses.
+ */
+public final class PathfindingAlgorithms {
+    private PathfindingAlgorithms() {}
+
+    public static PathfindingAlgorithm create(String algorithm) {
+        return switch (algorithm) {
+            case "A*" -> new AStarAlgorithm();
+            case "Dijkstra" -> new DijkstraAlgorithm();
+            case "BFS" -> new BFSAlgorithm();
+            case "Parallel BFS" -> new ParallelBFSAlgorithm();
+            case "DFS" -> new DFSAlgorithm();
+            case "Greedy" -> new GreedyBestFirstAlgorithm();
+            case "Bidirectional" -> new BidirectionalSearchAlgorithm();
+            case "Bidirectional A*" -> new BidirectionalAStar(true);
+            case "Bidirectional Dijkstra" -> new BidirectionalAStar(false);
+            case "JPS" -> new JumpPointSearchAlgorithm();
+            case "D* Lite" -> new DStarLiteAlgorithm();
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        };
+    }
+
+    /** Creates the algorithm wrapped so that every query is recorded in {@link SearchMetrics#shared()}. */
+    public static InstrumentedAlgorithm createInstrumented(String algorithm) {
+        return new InstrumentedAlgorithm(algorithm, create(algorithm), SearchMetrics.shared());
+    }
+}
@@ -0,0 +1,233 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Throughput benchmark for all six algorithms, in both their array-based {@link GridSolver}
+ * form and their step-based {@link PathfindingAlgorithm} form run to completion.
+ *
+ * Every combination of grid size, wall probability and layout is measured with a fixed
+ * seed, so runs are comparable. Each row reports ops/s (one op is one query), allocation
+ * rate and bytes per op, GC count, and average cells expanded per query.
+ *
+ * Usage: java PathfindingBenchmark [--algorithms A*,BFS] [--sizes 10,64,256,1024,4096]
+ *        [--walls 0.1,0.3] [--layouts open,maze] [--modes solver,step] [--costs 1]
+ *        [--warmup 1] [--iterations 3] [--time 500] [--seed 42]
+ *
+ * Layouts are "open" for independent random walls, "maze" for MazeGenerator's scattered
+ * walls, or backtracker, kruskal, wilson, eller or caves for its other algorithms.
+ * With --costs above 1, MazeGenerator also lays terrain with move costs up to that value.
+ */
+public class PathfindingBenchmark {
+    private static final int QUERIES = 16;
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+        "algorithms", "A*,Dijkstra,BFS,DFS,Greedy,Bidirectional",
+        "sizes", "10,64,256,1024,4096",
+        "walls", "0.1,0.3",
+        "layouts", "open,maze",
+        "costs", "1",
+        "modes", "solver,step",
+        "warmup", "1",
+        "iterations", "3",
+        "time", "500",
+        "seed", "42"
+    );
+
+    private static int sink;
+
+    private interface Workload {
+        /** Runs one query and returns the number of cells it expanded. */
+        int run(int start, int end);
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int iterations = Integer.parseInt(options.get("iterations"));
+        long timeMillis = Long.parseLong(options.get("time"));
+        long seed = Long.parseLong(options.get("seed"));
+        int maxCost = Integer.parseInt(options.get("costs"));
+
+        System.out.printf("%-22s %-6s %5s %5s %-6s %14s %10s %12s %12s %5s %12s%n",
+            "algorithm", "mode", "size", "walls", "layout", "ops/s", "error", "alloc MB/s", "B/op", "gc", "expanded/op");
+
+        for (String size : options.get("sizes").split(",")) {
+            for (String walls : options.get("walls").split(",")) {
+                for (String layout : options.get("layouts").split(",")) {
+                    int n = Integer.parseInt(size);
+                    double wallProbability = Double.parseDouble(walls);
+                    GridMap grid = new GridMap(n, n);
+                    Cell[][] cells = grid.createCellView();
+                    buildLayout(layout, grid, cells, wallProbability, seed);
+                    new MazeGenerator(n, n, wallProbability, seed).generateTerrain(cells, maxCost);
+                    int[][] queries = pickQueries(grid, seed);
+
+                    for (String algorithm : options.get("algorithms").split(",")) {
+                        for (String mode : options.get("modes").split(",")) {
+                            Workload workload = createWorkload(mode, algorithm, cells);
+                            double[] scores = new double[iterations];
+                            Measurement total = new Measurement();
+                            for (int i = 0; i < warmup; i++) {
+                                measure(workload, queries, timeMillis);
+                            }
+                            for (int i = 0; i < iterations; i++) {
+                                Measurement m = measure(workload, queries, timeMillis);
+                                scores[i] = m.ops * 1e9 / m.nanos;
+                                total.add(m);
+                            }
+                            report(algorithm, mode, n, walls, layout, scores, total);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void buildLayout(String layout, GridMap grid, Cell[][] cells, double wallProbability, long seed) {
+        switch (layout) {
+            case "open" -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < grid.size(); i++) {
+                    grid.setWall(i, random.nextDouble() < wallProbability);
+                }
+            }
+            case "maze" -> new MazeGenerator(grid.getRows(), grid.getCols(), wallProbability, seed).generateMaze(cells);
+            case "backtracker", "kruskal", "wilson", "eller", "caves" ->
+                new MazeGenerator(grid.getRows(), grid.getCols(), wallProbability, seed)
+                    .generate(cells, MazeGenerator.Algorithm.valueOf(layout.toUpperCase()));
+            default -> throw new IllegalArgumentException("Unknown layout: " + layout);
+        }
+    }
+
+    private static int[][] pickQueries(GridMap grid, long seed) {
+        Random random = new Random(seed);
+        int[][] queries = new int[QUERIES][2];
+        for (int[] query : queries) {
+            query[0] = randomOpenCell(grid, random);
+            query[1] = randomOpenCell(grid, random);
+        }
+        return queries;
+    }
+
+    // Picks among cells that are already open, so the layout being measured is unchanged
+    private static int randomOpenCell(GridMap grid, Random random) {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            int index = random.nextInt(grid.size());
+            if (!grid.isWall(index)) return index;
+        }
+        int open = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            if (!grid.isWall(i)) open++;
+        }
+        if (open == 0) {
+            throw new IllegalStateException("The layout has no open cells to query");
+        }
+        int rank = random.nextInt(open);
+        for (int i = 0; ; i++) {
+            if (!grid.isWall(i) && rank-- == 0) return i;
+        }
+    }
+
+    private static Workload createWorkload(String mode, String algorithm, Cell[][] cells) {
+        switch (mode) {
+            case "solver" -> {
+                GridSolver solver = GridSolvers.create(algorithm);
+                GridMap grid = cells[0][0].getGrid();
+                return (start, end) -> {
+                    int[] path = solver.solve(grid, start, end);
+                    sink += path == null ? -1 : path.length;
+                    return solver.getNodesExpanded();
+                };
+            }
+            case "step" -> {
+                int cols = cells[0].length;
+                return (start, end) -> {
+                    PathfindingAlgorithm algo = PathfindingAlgorithms.create(algorithm);
+                    algo.initialize(cells, cells[start / cols][start % cols], cells[end / cols][end % cols]);
+                    while (!algo.step()) {
+                        // run to completion
+                    }
+                    List<Cell> path = algo.getPath();
+                    sink += path == null ? -1 : path.size();
+                    return algo.getVisited().size();
+                };
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    private static class Measurement {
+        long ops;
+        long nanos;
+        long allocatedBytes;
+        long gcCount;
+        long expanded;
+
+        void add(Measurement other) {
+            ops += other.ops;
+            nanos += other.nanos;
+            allocatedBytes += other.allocatedBytes;
+            gcCount += other.gcCount;
+            expanded += other.expanded;
+        }
+    }
+
+    private static Measurement measure(Workload workload, int[][] queries, long timeMillis) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Measurement m = new Measurement();
+        long gcBefore = gcCount();
+        long allocBefore = threads.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        long deadline = begin + timeMillis * 1_000_000L;
+        int next = 0;
+        do {
+            int[] query = queries[next];
+            next = (next + 1) % queries.length;
+            m.expanded += workload.run(query[0], query[1]);
+            m.ops++;
+        } while (System.nanoTime() < deadline);
+        m.nanos = System.nanoTime() - begin;
+        m.allocatedBytes = threads.getCurrentThreadAllocatedBytes() - allocBefore;
+        m.gcCount = gcCount() - gcBefore;
+        return m;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static void report(String algorithm, String mode, int size, String walls, String layout,
+                               double[] scores, Measurement total) {
+        double mean = 0;
+        for (double score : scores) mean += score;
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) variance += (score - mean) * (score - mean);
+        double error = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+
+        double seconds = total.nanos / 1e9;
+        System.out.printf("%-22s %-6s %5d %5s %-6s %14.1f %10.1f %12.1f %12.0f %5d %12.0f%n",
+            algorithm, mode, size, walls, layout, mean, error,
+            total.allocatedBytes / seconds / (1024 * 1024),
+            (double) total.allocatedBytes / total.ops,
+            total.gcCount,
+            (double) total.expanded / total.ops);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (key == null || !DEFAULTS.containsKey(key) || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown or incomplete option: " + args[i]);
+            }
+            options.put(key, args[++i]);
+        }
+        return options;
+    }
+}
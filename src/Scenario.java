@@ -0,0 +1,32 @@
+/**
+ * One query from a MovingAI {@code .scen} file. Coordinates are as in the file: x is the
+ * column and y the row. The optimal length is the 8-connected (octile) path cost the
+ * benchmark set was published with.
+ */
+public final class Scenario {
+    private final int bucket;
+    private final String map;
+    private final int startX;
+    private final int startY;
+    private final int goalX;
+    private final int goalY;
+    private final double optimalLength;
+
+    public Scenario(int bucket, String map, int startX, int startY, int goalX, int goalY, double optimalLength) {
+        this.bucket = bucket;
+        this.map = map;
+        this.startX = startX;
+        this.startY = startY;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.optimalLength = optimalLength;
+    }
+
+    public int getBucket() { return bucket; }
+    public String getMap() { return map; }
+    public int getStartX() { return startX; }
+    public int getStartY() { return startY; }
+    public int getGoalX() { return goalX; }
+    public int getGoalY() { return goalY; }
+    public double getOptimalLength() { return optimalLength; }
+}
@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs MovingAI scenario files against one algorithm and reports, per bucket, how many
+ * queries were solved optimally and the latency percentiles.
+ *
+ * Usage: java ScenarioRunner --scen maps/arena.map.scen[,more.scen] [--maps maps]
+ *        [--algorithm A*] [--mode solver|step] [--warmup 1] [--runs 1] [--landmarks 0]
+ *        [--movement four|eight] [--heuristic default|chebyshev]
+ *
+ * Map names in a scenario are resolved by file name against --maps, or against the
+ * scenario's own directory if --maps is empty.
+ *
+ * The published optimal lengths are octile (8-connected) costs. The algorithms here
+ * move in 4 directions, so every path is checked against a 4-connected BFS reference
+ * instead. A reference shorter than the published optimum means the map or scenario is
+ * not the one the file was made for, and is reported as a mismatch.
+ *
+ * With --movement eight, which needs --mode step and an algorithm that supports
+ * diagonals, the search moves as the benchmark does: diagonally, without cutting corners.
+ * Paths are then checked against the published octile lengths directly.
+ *
+ * With --landmarks above 0, A* uses a {@link LandmarkHeuristic} with that many landmarks
+ * per map, built before the runs. With --heuristic chebyshev, A* uses a
+ * {@link ChebyshevHeuristic} instead of the movement's own Manhattan or octile distance.
+ * It is admissible but looser, so it shows how much a tighter bound saves.
+ */
+public class ScenarioRunner {
+    private static final Map<String, String> DEFAULTS = Map.of(
+        "scen", "",
+        "maps", "",
+        "algorithm", "A*",
+        "mode", "solver",
+        "warmup", "1",
+        "runs", "1",
+        "landmarks", "0",
+        "movement", "four",
+        "heuristic", "default"
+    );
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (options.get("scen").isEmpty()) {
+            throw new IllegalArgumentException("--scen is required");
+        }
+        String algorithm = options.get("algorithm");
+        boolean stepMode = options.get("mode").equals("step");
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int runs = Integer.parseInt(options.get("runs"));
+        GridTopology.Movement movement = switch (options.get("movement")) {
+            case "four" -> GridTopology.Movement.FOUR;
+            case "eight" -> GridTopology.Movement.EIGHT_NO_CORNER_CUTTING;
+            default -> throw new IllegalArgumentException("Unknown movement: " + options.get("movement"));
+        };
+        if (movement != GridTopology.Movement.FOUR && !stepMode) {
+            throw new IllegalArgumentException("--movement eight needs --mode step");
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        List<GridMap> grids = new ArrayList<>();
+        Map<Path, GridMap> loaded = new HashMap<>();
+        for (String file : options.get("scen").split(",")) {
+            Path scen = Path.of(file);
+            Path mapDir = options.get("maps").isEmpty() ? scen.toAbsolutePath().getParent() : Path.of(options.get("maps"));
+            for (Scenario scenario : MovingAiReader.readScenarios(scen)) {
+                Path map = mapDir.resolve(Path.of(scenario.getMap()).getFileName());
+                GridMap grid = loaded.get(map);
+                if (grid == null) {
+                    grid = MovingAiReader.readMap(map);
+                    loaded.put(map, grid);
+                }
+                scenarios.add(scenario);
+                grids.add(grid);
+            }
+        }
+
+        Map<GridMap, Heuristic> heuristics = new HashMap<>();
+        int landmarks = Integer.parseInt(options.get("landmarks"));
+        switch (options.get("heuristic")) {
+            case "default" -> { }
+            case "chebyshev" -> {
+                if (landmarks > 0) throw new IllegalArgumentException("--heuristic chebyshev and --landmarks exclude each other");
+                int straightCost = movement == GridTopology.Movement.FOUR ? 1 : GridTopology.STRAIGHT_COST;
+                for (GridMap grid : loaded.values()) {
+                    heuristics.put(grid, new ChebyshevHeuristic(grid.getCols(), straightCost));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown heuristic: " + options.get("heuristic"));
+        }
+        if (landmarks > 0) {
+            long begin = System.nanoTime();
+            long bytes = 0;
+            for (GridMap grid : loaded.values()) {
+                LandmarkHeuristic heuristic = new LandmarkHeuristic(grid, landmarks);
+                heuristics.put(grid, heuristic);
+                bytes += heuristic.bytesPerLandmark() * heuristic.getLandmarkCount();
+            }
+            System.out.printf("%d landmarks per map, %.1f KB per landmark on average, %.1f MB in total, built in %.1f ms%n",
+                landmarks, bytes / 1024.0 / landmarks / loaded.size(), bytes / 1048576.0, (System.nanoTime() - begin) / 1e6);
+        }
+
+        // One cell view and one algorithm per map, so step mode times the search and not the
+        // per-map setup, such as the JPS jump tables
+        Map<GridMap, Cell[][]> views = new HashMap<>();
+        Map<GridMap, PathfindingAlgorithm> algorithms = new HashMap<>();
+        if (stepMode) {
+            for (GridMap grid : loaded.values()) {
+                views.put(grid, grid.createCellView());
+                PathfindingAlgorithm algo = PathfindingAlgorithms.create(algorithm);
+                if (algo instanceof AStarAlgorithm) ((AStarAlgorithm) algo).setHeuristic(heuristics.get(grid));
+                algo.setMovement(movement);
+                algorithms.put(grid, algo);
+            }
+        }
+        GridSolver solver = stepMode ? null : GridSolvers.create(algorithm);
+        BFSSolver reference = new BFSSolver();
+
+        for (int pass = 0; pass < warmup; pass++) {
+            for (int i = 0; i < scenarios.size(); i++) {
+                run(solver, views, algorithms, heuristics, grids.get(i), scenarios.get(i));
+            }
+        }
+
+        SortedMap<Integer, Bucket> buckets = new TreeMap<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            Scenario scenario = scenarios.get(i);
+            GridMap grid = grids.get(i);
+            int start = grid.index(scenario.getStartY(), scenario.getStartX());
+            int goal = grid.index(scenario.getGoalY(), scenario.getGoalX());
+            double bestLength;
+            if (movement == GridTopology.Movement.FOUR) {
+                int[] best = reference.solve(grid, start, goal);
+                bestLength = best == null ? -1 : best.length - 1;
+            } else {
+                bestLength = scenario.getOptimalLength();
+            }
+            GridTopology topology = new GridTopology(grid, movement);
+
+            Bucket bucket = buckets.computeIfAbsent(scenario.getBucket(), b -> new Bucket());
+            for (int r = 0; r < runs; r++) {
+                long begin = System.nanoTime();
+                int[] path = run(solver, views, algorithms, heuristics, grid, scenario);
+                bucket.latencies.add(System.nanoTime() - begin);
+
+                if (r > 0) continue;
+                bucket.count++;
+                if (bestLength >= 0 && bestLength < scenario.getOptimalLength() - 1e-6) bucket.mismatched++;
+                if (path == null ? bestLength >= 0 : !isValid(topology, path, start, goal)) {
+                    bucket.failed++;
+                } else if (path == null || Math.abs(length(topology, path) - bestLength) < 1e-4 * bestLength + 1e-6) {
+                    bucket.optimal++;
+                }
+            }
+        }
+
+        System.out.printf("%s, %s mode, %d scenarios on %d maps%n", algorithm, options.get("mode"),
+            scenarios.size(), loaded.size());
+        System.out.printf("%6s %6s %7s %6s %8s %10s %10s %10s %10s%n",
+            "bucket", "count", "optimal", "failed", "mismatch", "p50 us", "p90 us", "p99 us", "max us");
+        Bucket total = new Bucket();
+        for (Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+            report(String.valueOf(entry.getKey()), entry.getValue());
+            total.add(entry.getValue());
+        }
+        report("all", total);
+    }
+
+    private static int[] run(GridSolver solver, Map<GridMap, Cell[][]> views,
+                             Map<GridMap, PathfindingAlgorithm> algorithms, Map<GridMap, Heuristic> heuristics,
+                             GridMap grid, Scenario scenario) {
+        int start = grid.index(scenario.getStartY(), scenario.getStartX());
+        int goal = grid.index(scenario.getGoalY(), scenario.getGoalX());
+        if (solver != null) {
+            if (solver instanceof AStarSolver) ((AStarSolver) solver).setHeuristic(heuristics.get(grid));
+            return solver.solve(grid, start, goal);
+        }
+        Cell[][] cells = views.get(grid);
+        PathfindingAlgorithm algo = algorithms.get(grid);
+        algo.initialize(cells, cells[scenario.getStartY()][scenario.getStartX()],
+            cells[scenario.getGoalY()][scenario.getGoalX()]);
+        List<Cell> path = algo.solve();
+        if (path == null) return null;
+        int[] result = new int[path.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = path.get(i).getIndex();
+        }
+        return result;
+    }
+
+    // Starts and ends at the right cells and only takes moves the topology allows
+    private static boolean isValid(GridTopology topology, int[] path, int start, int goal) {
+        if (path.length == 0 || path[0] != start || path[path.length - 1] != goal) return false;
+        if (topology.getGrid().isWall(start)) return false;
+        int[] neighbors = new int[GridTopology.MAX_NEIGHBORS];
+        for (int i = 1; i < path.length; i++) {
+            int count = topology.neighbors(path[i - 1], neighbors);
+            boolean found = false;
+            for (int n = 0; n < count && !found; n++) {
+                found = neighbors[n] == path[i];
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Moves for four-way paths, octile length with diagonals
+    private static double length(GridTopology topology, int[] path) {
+        if (topology.getMovement() == GridTopology.Movement.FOUR) return path.length - 1;
+        GridMap grid = topology.getGrid();
+        int diagonal = 0;
+        for (int i = 1; i < path.length; i++) {
+            if (grid.row(path[i]) != grid.row(path[i - 1]) && grid.col(path[i]) != grid.col(path[i - 1])) diagonal++;
+        }
+        return path.length - 1 - diagonal + diagonal * Math.sqrt(2);
+    }
+
+    private static class Bucket {
+        int count;
+        int optimal;
+        int failed;
+        int mismatched;
+        final List<Long> latencies = new ArrayList<>();
+
+        void add(Bucket other) {
+            count += other.count;
+            optimal += other.optimal;
+            failed += other.failed;
+            mismatched += other.mismatched;
+            latencies.addAll(other.latencies);
+        }
+    }
+
+    private static void report(String name, Bucket bucket) {
+        long[] sorted = bucket.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%6s %6d %7d %6d %8d %10.1f %10.1f %10.1f %10.1f%n",
+            name, bucket.count, bucket.optimal, bucket.failed, bucket.mismatched,
+            percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.90) / 1e3,
+            percentile(sorted, 0.99) / 1e3, sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e3);
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (key == null || !DEFAULTS.containsKey(key) || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown or incomplete option: " + args[i]);
+            }
+            options.put(key, args[++i]);
+        }
+        return options;
+    }
+}
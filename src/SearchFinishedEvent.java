@@ -0,0 +1,39 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed when an {@link InstrumentedAlgorithm} finishes. Its
+ * duration runs from initialization to the end of the search, including any pauses
+ * between steps. The search time field leaves those pauses out.
+ */
+@Name("pathfinder.SearchFinished")
+@Label("Search Finished")
+@Category("Path Finder")
+@Description("A pathfinding query finished, with what it cost")
+class SearchFinishedEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Nodes Expanded")
+    int nodesExpanded;
+
+    @Label("Cells Opened")
+    long cellsOpened;
+
+    @Label("Peak Open")
+    long peakOpen;
+
+    @Label("Steps")
+    long steps;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long searchTime;
+
+    @Label("Path Length")
+    @Description("Moves in the path, or -1 if there is none")
+    int pathLength;
+}
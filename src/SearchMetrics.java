@@ -0,0 +1,103 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Running totals over every query recorded by {@link InstrumentedAlgorithm}s. Recording
+ * is lock-free, so searches on several threads can share one instance.
+ *
+ * {@link #shared()} returns the process-wide instance, registered with the platform
+ * MBean server on first use so that JConsole or any JMX client can watch it.
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+    public static final String OBJECT_NAME = "pathfinder:type=SearchMetrics";
+
+    private static SearchMetrics shared;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queriesWithoutPath = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder cellsOpened = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final AtomicLong peakOpen = new AtomicLong();
+    private volatile SearchStats lastQuery;
+
+    public static synchronized SearchMetrics shared() {
+        if (shared == null) {
+            shared = new SearchMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(shared, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+            }
+        }
+        return shared;
+    }
+
+    public void record(SearchStats stats) {
+        queries.increment();
+        if (stats.getPathLength() < 0) queriesWithoutPath.increment();
+        nodesExpanded.add(stats.getNodesExpanded());
+        cellsOpened.add(stats.getCellsOpened());
+        searchNanos.add(stats.getSearchNanos());
+        peakOpen.accumulateAndGet(stats.getPeakOpen(), Math::max);
+        lastQuery = stats;
+    }
+
+    /**
+     * Adds the work of a search that went on after it was recorded, as D* Lite does when
+     * it replans, without counting another query. {@code extra} holds only the work done
+     * since the last record.
+     */
+    public void recordReplan(SearchStats extra) {
+        nodesExpanded.add(extra.getNodesExpanded());
+        cellsOpened.add(extra.getCellsOpened());
+        searchNanos.add(extra.getSearchNanos());
+        peakOpen.accumulateAndGet(extra.getPeakOpen(), Math::max);
+        lastQuery = extra;
+    }
+
+    @Override
+    public long getQueries() { return queries.sum(); }
+
+    @Override
+    public long getQueriesWithoutPath() { return queriesWithoutPath.sum(); }
+
+    @Override
+    public long getNodesExpanded() { return nodesExpanded.sum(); }
+
+    @Override
+    public long getCellsOpened() { return cellsOpened.sum(); }
+
+    /** Returns the largest open count any single query reached. */
+    @Override
+    public long getPeakOpen() { return peakOpen.get(); }
+
+    @Override
+    public double getSearchMillis() { return searchNanos.sum() / 1e6; }
+
+    @Override
+    public double getMeanSearchMillis() {
+        long count = queries.sum();
+        return count == 0 ? 0 : searchNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public String getLastQuery() {
+        SearchStats stats = lastQuery;
+        return stats == null ? "" : stats.toString();
+    }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        queriesWithoutPath.reset();
+        nodesExpanded.reset();
+        cellsOpened.reset();
+        searchNanos.reset();
+        peakOpen.set(0);
+        lastQuery = null;
+    }
+}
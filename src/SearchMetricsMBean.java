@@ -0,0 +1,16 @@
+/**
+ * JMX view of {@link SearchMetrics}, registered as {@value SearchMetrics#OBJECT_NAME}.
+ * Cells opened and nodes expanded count open-set pushes and pops, as described in
+ * {@link SearchStats}.
+ */
+public interface SearchMetricsMBean {
+    long getQueries();
+    long getQueriesWithoutPath();
+    long getNodesExpanded();
+    long getCellsOpened();
+    long getPeakOpen();
+    double getSearchMillis();
+    double getMeanSearchMillis();
+    String getLastQuery();
+    void reset();
+}
@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs the steps of a {@link PathfindingAlgorithm} on a background thread so the GUI
+ * stays responsive. The cells each step touches are collected on the worker and handed
+ * to the {@link Listener} on the EDT in batches, at most about once a frame.
+ *
+ * While a run is active, the worker owns the algorithm and its grid. Before the EDT edits
+ * either, it must call {@link #cancel()}. That waits for the current step to finish and
+ * delivers the remaining touched cells, so the grid is never written while a search
+ * reads it.
+ *
+ * All public methods must be called on the EDT.
+ */
+public class SearchRunner {
+    private static final long PUBLISH_NANOS = 16_000_000L;
+
+    /** Callbacks, always on the EDT. */
+    public interface Listener {
+        void cellsTouched(int[] indices, int count);
+        void searchStopped(boolean finished);
+    }
+
+    private final Listener listener;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "search-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Task current;
+    private Future<?> future;
+
+    // Touched cells waiting for the EDT, guarded by this
+    private int[] pending = new int[1024];
+    private int pendingCount;
+    private boolean flushPosted;
+
+    public SearchRunner(Listener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isRunning() {
+        return current != null;
+    }
+
+    /**
+     * Runs up to {@code maxSteps} steps of an initialized algorithm. With a positive
+     * {@code stepBudgetNanos}, each frame only spends that long stepping and sleeps for
+     * the rest of it, so the search plays back at a watchable pace.
+     */
+    public void start(PathfindingAlgorithm algorithm, long maxSteps, long stepBudgetNanos) {
+        cancel();
+        current = new Task(algorithm, maxSteps, stepBudgetNanos);
+        future = executor.submit(current);
+    }
+
+    /** Stops the active run, if any, and waits for its last step to complete. */
+    public void cancel() {
+        Task task = current;
+        if (task == null) return;
+        current = null;
+        task.cancelled = true;
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+        flush();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+    private synchronized void offer(int[] indices, int count) {
+        if (pendingCount + count > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingCount + count));
+        }
+        System.arraycopy(indices, 0, pending, pendingCount, count);
+        pendingCount += count;
+        if (!flushPosted) {
+            flushPosted = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    private void flush() {
+        int[] batch;
+        int count;
+        synchronized (this) {
+            flushPosted = false;
+            if (pendingCount == 0) return;
+            batch = pending;
+            count = pendingCount;
+            pending = new int[Math.max(1024, count)];
+            pendingCount = 0;
+        }
+        listener.cellsTouched(batch, count);
+    }
+
+    private void stopped(Task task, boolean finished) {
+        flush();
+        // A cancelled run was already wound down by cancel()
+        if (current != task) return;
+        current = null;
+        listener.searchStopped(finished);
+    }
+
+    private final class Task implements Runnable, StepListener {
+        private final PathfindingAlgorithm algorithm;
+        private final long maxSteps;
+        private final long stepBudgetNanos;
+        private volatile boolean cancelled;
+        private volatile boolean finished;
+        private int[] touched = new int[256];
+        private int touchedCount;
+
+        Task(PathfindingAlgorithm algorithm, long maxSteps, long stepBudgetNanos) {
+            this.algorithm = algorithm;
+            this.maxSteps = maxSteps;
+            this.stepBudgetNanos = stepBudgetNanos;
+        }
+
+        @Override
+        public void run() {
+            finished = algorithm.isFinished();
+            algorithm.setStepListener(this);
+            try {
+                long frameStart = System.nanoTime();
+                long steps = 0;
+                while (!finished && !cancelled && steps < maxSteps) {
+                    finished = algorithm.step();
+                    steps++;
+                    long now = System.nanoTime();
+                    if (stepBudgetNanos > 0 && now - frameStart >= stepBudgetNanos) {
+                        publish();
+                        long sleep = PUBLISH_NANOS - (now - frameStart);
+                        if (sleep > 0) LockSupport.parkNanos(sleep);
+                        frameStart = System.nanoTime();
+                    } else if (now - frameStart >= PUBLISH_NANOS) {
+                        publish();
+                        frameStart = now;
+                    }
+                }
+            } finally {
+                algorithm.setStepListener(null);
+                publish();
+                SwingUtilities.invokeLater(() -> stopped(this, finished));
+            }
+        }
+
+        private void publish() {
+            if (touchedCount == 0) return;
+            offer(touched, touchedCount);
+            touchedCount = 0;
+        }
+
+        @Override
+        public void cellOpened(Cell cell) {
+            add(cell.getIndex());
+        }
+
+        @Override
+        public void cellClosed(Cell cell) {
+            add(cell.getIndex());
+        }
+
+        private void add(int index) {
+            if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+            touched[touchedCount++] = index;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event committed when an {@link InstrumentedAlgorithm} is initialized.
+ */
+@Name("pathfinder.SearchStarted")
+@Label("Search Started")
+@Category("Path Finder")
+@Description("A pathfinding query was initialized")
+class SearchStartedEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Start Index")
+    int start;
+
+    @Label("End Index")
+    int end;
+
+    @Label("Grid Cells")
+    int cells;
+}
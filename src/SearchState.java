@@ -0,0 +1,71 @@
+import java.util.Arrays;
+
+/**
+ * Per-query search state for the array-based solvers: g-cost and parent per cell index
+ * plus a closed bitset. Entries are stamped with a generation counter so that starting a
+ * new query does not have to clear the g-cost and parent arrays.
+ */
+public class SearchState {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private int[] gCost = new int[0];
+    private int[] parent = new int[0];
+    private int[] stamp = new int[0];
+    private long[] closed = new long[0];
+    private int generation;
+
+    public void reset(int size) {
+        if (stamp.length != size) {
+            gCost = new int[size];
+            parent = new int[size];
+            stamp = new int[size];
+            closed = new long[(size + 63) >>> 6];
+            generation = 1;
+            return;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        Arrays.fill(closed, 0L);
+    }
+
+    public boolean isReached(int index) {
+        return stamp[index] == generation;
+    }
+
+    public int getGCost(int index) {
+        return stamp[index] == generation ? gCost[index] : UNREACHED;
+    }
+
+    public int getParent(int index) {
+        return stamp[index] == generation ? parent[index] : -1;
+    }
+
+    public void reach(int index, int g, int parentIndex) {
+        stamp[index] = generation;
+        gCost[index] = g;
+        parent[index] = parentIndex;
+    }
+
+    public boolean isClosed(int index) {
+        return (closed[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void close(int index) {
+        closed[index >>> 6] |= 1L << index;
+    }
+
+    /** Follows parent links back from {@code end} and returns the path in start-to-end order. */
+    public int[] buildPath(int end) {
+        int length = 0;
+        for (int at = end; at != -1; at = getParent(at)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int at = end, i = length - 1; at != -1; at = getParent(at), i--) {
+            path[i] = at;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * What one query cost, as measured by {@link InstrumentedAlgorithm}. Cells opened and the
+ * peak open count come from the {@link StepListener} events, so a cell whose key is only
+ * decreased is not counted again. Search time is the time spent inside {@code step()}
+ * and {@code solve()}, without the pauses between GUI steps. Steps count the wrapped
+ * algorithm's {@code step()} calls, including those made by {@code solve()}.
+ *
+ * These stand in for open-set pushes and pops: cells opened are pushes, and nodes
+ * expanded are pops. Counting listener events rather than heap operations works for
+ * every algorithm, including BFS and DFS, whose open sets are not heaps, without
+ * touching their queues.
+ */
+public final class SearchStats {
+    private final String algorithm;
+    private final int nodesExpanded;
+    private final long cellsOpened;
+    private final long peakOpen;
+    private final long steps;
+    private final long searchNanos;
+    private final int pathLength;
+
+    public SearchStats(String algorithm, int nodesExpanded, long cellsOpened, long peakOpen, long steps,
+                       long searchNanos, int pathLength) {
+        this.algorithm = algorithm;
+        this.nodesExpanded = nodesExpanded;
+        this.cellsOpened = cellsOpened;
+        this.peakOpen = peakOpen;
+        this.steps = steps;
+        this.searchNanos = searchNanos;
+        this.pathLength = pathLength;
+    }
+
+    public String getAlgorithm() { return algorithm; }
+    public int getNodesExpanded() { return nodesExpanded; }
+    public long getCellsOpened() { return cellsOpened; }
+    public long getPeakOpen() { return peakOpen; }
+    public long getSteps() { return steps; }
+    public long getSearchNanos() { return searchNanos; }
+
+    /** Returns the number of moves in the path, or -1 if there is none. */
+    public int getPathLength() { return pathLength; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f ms, %d steps, %d expanded, %d opened, peak open %d, %s",
+            algorithm, searchNanos / 1e6, steps, nodesExpanded, cellsOpened, peakOpen,
+            pathLength < 0 ? "no path" : "path length " + pathLength);
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Receives the cells that change in each {@link PathfindingAlgorithm#step()}. A view only
+ * has to redraw those, instead of copying the whole frontier and visited sets every step.
+ * Callbacks run on the thread calling {@code step()}.
+ */
+public interface StepListener {
+    /** The cell was added to the frontier. */
+    void cellOpened(Cell cell);
+
+    /** The cell was expanded. */
+    void cellClosed(Cell cell);
+}
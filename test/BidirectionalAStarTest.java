@@ -0,0 +1,91 @@
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that {@link BidirectionalAStar}, with and without its heuristic, returns paths
+ * exactly as cheap as {@link DialSolver}'s. Terrain costs make the first cell where the
+ * two searches meet a poor guess, so these queries depend on the stopping rule and on
+ * the pruning of cells the other side has closed. The step-based form must agree with
+ * the solver form.
+ */
+public class BidirectionalAStarTest {
+    public static void main(String[] args) {
+        detourBeatsFirstMeeting();
+        Random random = new Random(7);
+        DialSolver dial = new DialSolver();
+        BidirectionalAStar aStar = new BidirectionalAStar(true);
+        BidirectionalAStar dijkstra = new BidirectionalAStar(false);
+        for (int trial = 0; trial < 1000; trial++) {
+            int rows = 1 + random.nextInt(50);
+            int cols = 1 + random.nextInt(50);
+            GridMap grid = new GridMap(rows, cols);
+            Cell[][] cells = grid.createCellView();
+            if (rows > 1 && cols > 1 && random.nextBoolean()) {
+                MazeGenerator generator = new MazeGenerator(rows, cols, 0.4 * random.nextDouble(), random.nextLong());
+                generator.generateMaze(cells);
+                if (random.nextBoolean()) generator.generateTerrain(cells, 2 + random.nextInt(20));
+            } else {
+                double density = 0.4 * random.nextDouble();
+                for (int i = 0; i < grid.size(); i++) {
+                    grid.setWall(i, random.nextDouble() < density);
+                }
+            }
+            for (int q = 0; q < 5; q++) {
+                int start = random.nextInt(grid.size());
+                int end = random.nextInt(10) == 0 ? start : random.nextInt(grid.size());
+                if (grid.isWall(start) || grid.isWall(end)) continue;
+                String where = "trial " + trial + " " + rows + "x" + cols + " query " + start + " -> " + end;
+                int[] expected = dial.solve(grid, start, end);
+                checkPath(grid, aStar.solve(grid, start, end), expected, start, end, where + ", A* solver");
+                checkPath(grid, dijkstra.solve(grid, start, end), expected, start, end, where + ", Dijkstra solver");
+                PathfindingAlgorithm stepped = new BidirectionalAStar(true);
+                stepped.initialize(cells, cells[start / cols][start % cols], cells[end / cols][end % cols]);
+                while (!stepped.step()) {
+                    // run to completion one step at a time
+                }
+                List<Cell> path = stepped.getPath();
+                checkPath(grid, path == null ? null : path.stream().mapToInt(Cell::getIndex).toArray(), expected,
+                    start, end, where + ", A* steps");
+            }
+        }
+        System.out.println("BidirectionalAStarTest passed");
+    }
+
+    // A straight corridor through costly terrain, where the two searches meet first, and a
+    // cheap detour around it
+    private static void detourBeatsFirstMeeting() {
+        GridMap grid = new GridMap(3, 9);
+        for (int c = 1; c < 8; c++) {
+            grid.setCost(1, c, 50);
+        }
+        int start = grid.index(1, 0);
+        int end = grid.index(1, 8);
+        int[] expected = new DialSolver().solve(grid, start, end);
+        checkPath(grid, new BidirectionalAStar(true).solve(grid, start, end), expected, start, end, "detour, A*");
+        checkPath(grid, new BidirectionalAStar(false).solve(grid, start, end), expected, start, end, "detour, Dijkstra");
+    }
+
+    private static void checkPath(GridMap grid, int[] path, int[] expected, int start, int end, String where) {
+        check((path == null) == (expected == null), where + ": reachability differs");
+        if (path == null) return;
+        check(path[0] == start && path[path.length - 1] == end, where + ": path does not join start and end");
+        for (int i = 1; i < path.length; i++) {
+            int step = Math.abs(grid.row(path[i]) - grid.row(path[i - 1])) + Math.abs(grid.col(path[i]) - grid.col(path[i - 1]));
+            check(step == 1 && !grid.isWall(path[i]), where + ": path is not a chain of open neighbours");
+        }
+        check(cost(grid, path) == cost(grid, expected),
+            where + ": cost " + cost(grid, path) + ", optimal " + cost(grid, expected));
+    }
+
+    private static long cost(GridMap grid, int[] path) {
+        long cost = 0;
+        for (int i = 1; i < path.length; i++) {
+            cost += grid.getCost(path[i]);
+        }
+        return cost;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
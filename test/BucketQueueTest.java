@@ -0,0 +1,79 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks {@link BucketQueue} against a plain array scan under random monotone adds,
+ * decrease-keys, removes and polls. Small ring sizes make the keys wrap around the ring of
+ * buckets many times.
+ */
+public class BucketQueueTest {
+    public static void main(String[] args) {
+        Random random = new Random(19);
+        for (int maxStep : new int[] {1, 2, 3, 7, 8, 255}) {
+            for (int trial = 0; trial < 50; trial++) {
+                run(random, 1 + random.nextInt(200), maxStep, "maxStep " + maxStep + " trial " + trial);
+            }
+        }
+        System.out.println("BucketQueueTest passed");
+    }
+
+    private static void run(Random random, int capacity, int maxStep, String where) {
+        BucketQueue queue = new BucketQueue(capacity, maxStep);
+        // The reference: key of each queued item, or -1
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, -1);
+        int size = 0;
+        int last = 0;
+        for (int op = 0; op < 5000; op++) {
+            int item = random.nextInt(capacity);
+            int choice = random.nextInt(10);
+            if (choice < 4) {
+                if (keys[item] >= 0) continue;
+                int key = last + random.nextInt(maxStep + 1);
+                queue.add(item, key);
+                keys[item] = key;
+                size++;
+            } else if (choice < 6) {
+                if (keys[item] < 0 || keys[item] == last) continue;
+                int key = last + random.nextInt(keys[item] - last + 1);
+                queue.decreaseKey(item, key);
+                keys[item] = key;
+            } else if (choice < 7) {
+                if (keys[item] < 0) continue;
+                queue.remove(item);
+                keys[item] = -1;
+                size--;
+            } else if (choice < 9) {
+                if (size == 0) continue;
+                int min = Integer.MAX_VALUE;
+                for (int key : keys) {
+                    if (key >= 0) min = Math.min(min, key);
+                }
+                int polled = queue.poll();
+                check(keys[polled] == min, where + ": polled key " + keys[polled] + ", smallest is " + min);
+                keys[polled] = -1;
+                size--;
+                last = min;
+            } else if (random.nextInt(50) == 0) {
+                queue.clear();
+                Arrays.fill(keys, -1);
+                size = 0;
+                last = 0;
+            }
+            check(queue.size() == size, where + ": size " + queue.size() + ", expected " + size);
+            check(queue.contains(item) == (keys[item] >= 0), where + ": contains(" + item + ")");
+        }
+        while (size > 0) {
+            int polled = queue.poll();
+            check(keys[polled] >= last, where + ": keys went backwards");
+            last = keys[polled];
+            keys[polled] = -1;
+            size--;
+        }
+        check(queue.isEmpty(), where + ": queue not empty after draining");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Random;
+
+/**
+ * Checks that {@link ConnectedComponents} follows wall edits incrementally: after every
+ * edit, {@code connected()} and the region sizes must match an index built from scratch.
+ * The edits split and join regions, clear all walls, and split regions large enough to
+ * hit the split search limit.
+ */
+public class ConnectedComponentsTest {
+    public static void main(String[] args) {
+        randomEdits();
+        largeSplit();
+        System.out.println("ConnectedComponentsTest passed");
+    }
+
+    private static void randomEdits() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 40; trial++) {
+            GridMap grid = new GridMap(4 + random.nextInt(40), 4 + random.nextInt(40));
+            double density = 0.2 + 0.4 * random.nextDouble();
+            for (int i = 0; i < grid.size(); i++) {
+                grid.setWall(i, random.nextDouble() < density);
+            }
+            ConnectedComponents components = new ConnectedComponents(grid);
+            for (int edit = 0; edit < 2000; edit++) {
+                if (edit == 1000) grid.clearWalls();
+                int index = random.nextInt(grid.size());
+                // Lean towards walls near the wall density, so regions keep splitting and joining
+                grid.setWall(index, random.nextDouble() < density);
+                compare(grid, components, random, "trial " + trial + " edit " + edit);
+            }
+            components.close();
+        }
+    }
+
+    // A wall line across a region of more than 65536 cells makes the split search give up
+    private static void largeSplit() {
+        GridMap grid = new GridMap(400, 400);
+        ConnectedComponents components = new ConnectedComponents(grid);
+        check(components.componentCount() == 1, "an open grid is one region");
+        for (int c = 0; c < 400; c++) {
+            grid.setWall(200, c, true);
+        }
+        check(components.componentCount() == 2, "a full wall line splits the grid: " + components.componentCount());
+        check(!components.connected(grid.index(0, 0), grid.index(399, 399)), "the halves are still connected");
+        check(components.sizeOf(0) == 200 * 400, "top half size " + components.sizeOf(0));
+        grid.setWall(200, 17, false);
+        check(components.componentCount() == 1, "a gap joins the halves: " + components.componentCount());
+        check(components.connected(grid.index(0, 0), grid.index(399, 399)), "the halves are not joined");
+        components.close();
+    }
+
+    private static void compare(GridMap grid, ConnectedComponents components, Random random, String where) {
+        ConnectedComponents fresh = new ConnectedComponents(grid);
+        check(components.componentCount() == fresh.componentCount(),
+            where + ": " + components.componentCount() + " regions, expected " + fresh.componentCount());
+        for (int q = 0; q < 20; q++) {
+            int a = random.nextInt(grid.size());
+            int b = random.nextInt(grid.size());
+            check(components.connected(a, b) == fresh.connected(a, b), where + ": connected(" + a + ", " + b + ")");
+            check(components.sizeOf(a) == fresh.sizeOf(a), where + ": sizeOf(" + a + ")");
+        }
+        fresh.close();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.Random;
+
+/**
+ * Checks that {@link DialSolver} finds paths as cheap as {@link DijkstraSolver}'s on mazes
+ * with terrain costs, including costs up to {@link GridMap#MAX_COST} that wrap its ring
+ * of buckets, and that {@link DialSolver#distancesFrom} agrees with single searches.
+ */
+public class DialSolverTest {
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        DialSolver dial = new DialSolver();
+        DijkstraSolver dijkstra = new DijkstraSolver();
+        for (int trial = 0; trial < 300; trial++) {
+            int rows = 2 + random.nextInt(50);
+            int cols = 2 + random.nextInt(50);
+            GridMap grid = new GridMap(rows, cols);
+            Cell[][] cells = grid.createCellView();
+            MazeGenerator generator = new MazeGenerator(rows, cols, 0.4 * random.nextDouble(), random.nextLong());
+            generator.generateMaze(cells);
+            generator.generateTerrain(cells, random.nextBoolean() ? 9 : GridMap.MAX_COST);
+            int[] distances = new int[grid.size()];
+            int source = random.nextInt(grid.size());
+            grid.setWall(source, false);
+            dial.distancesFrom(grid, source, distances);
+            for (int q = 0; q < 10; q++) {
+                int end = random.nextInt(grid.size());
+                String where = "trial " + trial + " query " + source + " -> " + end;
+                int[] expected = dijkstra.solve(grid, source, end);
+                int[] path = dial.solve(grid, source, end);
+                check((path == null) == (expected == null), where + ": reachability differs");
+                if (expected == null) {
+                    check(distances[end] == SearchState.UNREACHED, where + ": distance to an unreachable cell");
+                    continue;
+                }
+                check(cost(grid, path) == cost(grid, expected),
+                    where + ": cost " + cost(grid, path) + ", expected " + cost(grid, expected));
+                check(distances[end] == cost(grid, expected),
+                    where + ": distance " + distances[end] + ", expected " + cost(grid, expected));
+            }
+        }
+        System.out.println("DialSolverTest passed");
+    }
+
+    private static long cost(GridMap grid, int[] path) {
+        long cost = 0;
+        for (int i = 1; i < path.length; i++) {
+            check(Math.abs(grid.row(path[i]) - grid.row(path[i - 1])) + Math.abs(grid.col(path[i]) - grid.col(path[i - 1])) == 1
+                && !grid.isWall(path[i]), "path is not a chain of open neighbours");
+            cost += grid.getCost(path[i]);
+        }
+        return cost;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.Random;
+
+/**
+ * Checks that {@link HierarchicalPathfinder} follows wall edits: paths stay on open cells,
+ * move one step at a time, and exist exactly when {@link BFSSolver} finds one, whether
+ * edits are also reported through {@link HierarchicalPathfinder#updateWall} or only
+ * heard through its grid listener. Edits after a build must not rebuild the whole grid.
+ */
+public class HierarchicalPathfinderTest {
+    public static void main(String[] args) {
+        editsRebuildLocally();
+        Random random = new Random(11);
+        for (int trial = 0; trial < 300; trial++) {
+            boolean reportAll = trial % 2 == 0;
+            GridMap grid = new GridMap(24 + random.nextInt(24), 24 + random.nextInt(24));
+            for (int i = 0; i < grid.size(); i++) {
+                grid.setWall(i, random.nextDouble() < 0.3);
+            }
+            HierarchicalPathfinder hpa = new HierarchicalPathfinder(8);
+            hpa.build(grid);
+            for (int round = 0; round < 5; round++) {
+                int edits = 1 + random.nextInt(6);
+                int last = -1;
+                for (int e = 0; e < edits; e++) {
+                    last = random.nextInt(grid.size());
+                    grid.setWall(last, !grid.isWall(last));
+                    if (reportAll) hpa.updateWall(last);
+                }
+                if (!reportAll) hpa.updateWall(last);
+                int start = randomOpenCell(grid, random);
+                int end = randomOpenCell(grid, random);
+                checkPath(grid, hpa.solve(grid, start, end), start, end,
+                    "trial " + trial + " round " + round + (reportAll ? "" : ", last edit reported"));
+            }
+        }
+        System.out.println("HierarchicalPathfinderTest passed");
+    }
+
+    // Wall and cost edits after a build are applied through the listener, without a
+    // whole-grid rebuild. Clearing the walls leaves one rebuild for the next query.
+    private static void editsRebuildLocally() {
+        GridMap grid = new GridMap(64, 64);
+        HierarchicalPathfinder hpa = new HierarchicalPathfinder(8);
+        int start = grid.index(0, 0);
+        int end = grid.index(63, 63);
+        hpa.solve(grid, start, end);
+        check(hpa.getBuildCount() == 1, "first query builds once, got " + hpa.getBuildCount());
+        for (int r = 0; r < 60; r++) {
+            grid.setWall(r, 32, true);
+        }
+        grid.setCost(10, 10, 9);
+        checkPath(grid, hpa.solve(grid, start, end), start, end, "after edits");
+        check(hpa.getBuildCount() == 1, "wall and cost edits forced " + (hpa.getBuildCount() - 1) + " full rebuilds");
+
+        grid.clearWalls();
+        grid.setWall(5, 5, true);
+        checkPath(grid, hpa.solve(grid, start, end), start, end, "after clearing walls");
+        check(hpa.getBuildCount() == 2, "clearing walls should cost one rebuild, got " + (hpa.getBuildCount() - 1));
+        hpa.close();
+        grid.setWall(6, 6, true);
+        checkPath(grid, hpa.solve(grid, start, end), start, end, "after close");
+    }
+
+    private static void checkPath(GridMap grid, int[] path, int start, int end, String where) {
+        boolean reachable = new BFSSolver().solve(grid, start, end) != null;
+        check((path != null) == reachable, where + ": path " + (path != null) + ", BFS " + reachable);
+        if (path == null) return;
+        check(path[0] == start && path[path.length - 1] == end, where + ": path does not join start and end");
+        for (int i = 0; i < path.length; i++) {
+            check(!grid.isWall(path[i]), where + ": path crosses the wall at " + path[i]);
+            if (i == 0) continue;
+            int dr = Math.abs(grid.row(path[i]) - grid.row(path[i - 1]));
+            int dc = Math.abs(grid.col(path[i]) - grid.col(path[i - 1]));
+            check(dr + dc == 1, where + ": path jumps from " + path[i - 1] + " to " + path[i]);
+        }
+    }
+
+    private static int randomOpenCell(GridMap grid, Random random) {
+        while (true) {
+            int index = random.nextInt(grid.size());
+            if (!grid.isWall(index)) return index;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
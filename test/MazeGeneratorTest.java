@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks the maps from {@link MazeGenerator}: lattice mazes are perfect, start and end
+ * are joined to the maze wherever the GUI and HeadlessRunner put them, the same seed gives
+ * the same map, and a streamed Eller maze matches the one built in memory.
+ */
+public class MazeGeneratorTest {
+    private static final MazeGenerator.Algorithm[] LATTICE = {
+        MazeGenerator.Algorithm.BACKTRACKER, MazeGenerator.Algorithm.KRUSKAL,
+        MazeGenerator.Algorithm.WILSON, MazeGenerator.Algorithm.ELLER
+    };
+    private static final int[][] SIZES = {{3, 3}, {4, 4}, {5, 8}, {8, 5}, {21, 21}, {32, 32}, {33, 64}, {64, 33}, {512, 512}};
+
+    public static void main(String[] args) throws IOException {
+        latticeMazesArePerfect();
+        endpointsAreReachable();
+        sameSeedGivesSameMap();
+        streamedEllerMatchesMemory();
+        System.out.println("MazeGeneratorTest passed");
+    }
+
+    private static void latticeMazesArePerfect() {
+        for (MazeGenerator.Algorithm algorithm : LATTICE) {
+            for (int[] size : SIZES) {
+                GridMap grid = generate(size[0], size[1], algorithm, 1, -1, -1);
+                int cells = ((size[0] - 1) / 2) * ((size[1] - 1) / 2);
+                int open = 0;
+                for (int i = 0; i < grid.size(); i++) {
+                    if (!grid.isWall(i)) open++;
+                }
+                check(open == 2 * cells - 1, algorithm + " " + size[0] + "x" + size[1] + " has " + open
+                    + " open cells, a spanning tree of " + cells + " cells has " + (2 * cells - 1));
+                ConnectedComponents components = new ConnectedComponents(grid);
+                check(components.componentCount() == 1, algorithm + " " + size[0] + "x" + size[1] + " is not connected");
+                components.close();
+            }
+        }
+    }
+
+    // The GUI puts start and end at (rows / 2, 1) and (rows / 2, cols - 2), as does
+    // HeadlessRunner. With even sizes both can land on an even row and column.
+    private static void endpointsAreReachable() {
+        for (MazeGenerator.Algorithm algorithm : LATTICE) {
+            for (int[] size : SIZES) {
+                for (long seed = 0; seed < 4; seed++) {
+                    int rows = size[0];
+                    int cols = size[1];
+                    GridMap grid = generate(rows, cols, algorithm, seed, rows / 2 * cols + 1, rows / 2 * cols + cols - 2);
+                    ConnectedComponents components = new ConnectedComponents(grid);
+                    check(components.connected(rows / 2 * cols + 1, rows / 2 * cols + cols - 2),
+                        algorithm + " " + rows + "x" + cols + " seed " + seed + ": end unreachable from start");
+                    check(components.componentCount() == 1,
+                        algorithm + " " + rows + "x" + cols + " seed " + seed + ": an endpoint is cut off");
+                    components.close();
+                }
+            }
+        }
+    }
+
+    private static void sameSeedGivesSameMap() {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            GridMap first = generate(65, 97, algorithm, 7, -1, -1);
+            GridMap second = generate(65, 97, algorithm, 7, -1, -1);
+            check(sameWalls(first, second), algorithm + " gave two maps for one seed");
+        }
+    }
+
+    private static void streamedEllerMatchesMemory() throws IOException {
+        Path file = Files.createTempFile("maze", ".grid");
+        try {
+            for (int[] size : SIZES) {
+                new MazeGenerator(size[0], size[1], 0.3, 3).writeEller(file);
+                GridMap memory = generate(size[0], size[1], MazeGenerator.Algorithm.ELLER, 3, -1, -1);
+                check(sameWalls(GridFile.open(file), memory), "streamed Eller differs at " + size[0] + "x" + size[1]);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static GridMap generate(int rows, int cols, MazeGenerator.Algorithm algorithm, long seed, int start, int end) {
+        GridMap grid = new GridMap(rows, cols);
+        Cell[][] cells = grid.createCellView();
+        if (start >= 0) cells[start / cols][start % cols].setStart(true);
+        if (end >= 0) cells[end / cols][end % cols].setEnd(true);
+        new MazeGenerator(rows, cols, 0.3, seed).generate(cells, algorithm);
+        return grid;
+    }
+
+    private static boolean sameWalls(GridMap a, GridMap b) {
+        for (int i = 0; i < a.size(); i++) {
+            if (a.isWall(i) != b.isWall(i)) return false;
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
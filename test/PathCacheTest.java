@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that {@link PathCache} follows wall and cost edits: after every edit, each cached
+ * path must be a valid path costing the same as a fresh {@link DijkstraSolver} search, or
+ * be null exactly when no path exists. Also checks LRU eviction by entry count and by
+ * cached cells, and the cache behind {@link BatchPathfinder}.
+ */
+public class PathCacheTest {
+    private static final String[] ALGORITHMS = {"Dijkstra", "A*"};
+
+    public static void main(String[] args) {
+        randomEdits();
+        evictsByEntries();
+        evictsByCells();
+        batchFollowsEdits();
+        System.out.println("PathCacheTest passed");
+    }
+
+    private static void randomEdits() {
+        Random random = new Random(9);
+        long hits = 0;
+        long invalidations = 0;
+        for (int trial = 0; trial < 30; trial++) {
+            GridMap grid = randomGrid(random);
+            PathCache cache = new PathCache(grid, 1000, Long.MAX_VALUE);
+            // A few fixed endpoints, so the same queries come back and hit the cache
+            int[] endpoints = new int[6];
+            for (int i = 0; i < endpoints.length; i++) {
+                endpoints[i] = random.nextInt(grid.size());
+            }
+            DijkstraSolver reference = new DijkstraSolver();
+            for (int edit = 0; edit < 300; edit++) {
+                int index = random.nextInt(grid.size());
+                if (edit == 150) {
+                    grid.clearWalls();
+                } else if (edit == 200) {
+                    grid.clearCosts();
+                } else if (random.nextBoolean()) {
+                    grid.setWall(index, !grid.isWall(index));
+                } else {
+                    grid.setCost(index, 1 + random.nextInt(9));
+                }
+                for (int q = 0; q < 8; q++) {
+                    int start = endpoints[random.nextInt(endpoints.length)];
+                    int end = endpoints[random.nextInt(endpoints.length)];
+                    String algorithm = ALGORITHMS[random.nextInt(ALGORITHMS.length)];
+                    int[] path = cache.findPath(algorithm, start, end);
+                    int[] best = reference.solve(grid, start, end);
+                    String where = "trial " + trial + " edit " + edit + " " + algorithm + " " + start + " -> " + end;
+                    compare(grid, path, best, start, end, where);
+                }
+            }
+            hits += cache.getHitCount();
+            invalidations += cache.getInvalidationCount();
+            cache.close();
+        }
+        check(hits > 0, "no query hit the cache");
+        check(invalidations > 0, "no edit invalidated an entry");
+    }
+
+    private static void evictsByEntries() {
+        GridMap grid = new GridMap(1, 20);
+        PathCache cache = new PathCache(grid, 3, Long.MAX_VALUE);
+        cache.findPath("BFS", 0, 1);
+        cache.findPath("BFS", 0, 2);
+        cache.findPath("BFS", 0, 3);
+        cache.findPath("BFS", 0, 1); // 0 -> 2 is now the least recently used
+        cache.findPath("BFS", 0, 4);
+        check(cache.size() == 3, "size " + cache.size() + ", expected 3");
+        check(cache.getEvictionCount() == 1, "evictions " + cache.getEvictionCount() + ", expected 1");
+        long misses = cache.getMissCount();
+        cache.findPath("BFS", 0, 1);
+        cache.findPath("BFS", 0, 3);
+        cache.findPath("BFS", 0, 4);
+        check(cache.getMissCount() == misses, "a recently used entry was evicted");
+        cache.findPath("BFS", 0, 2);
+        check(cache.getMissCount() == misses + 1, "the least recently used entry was kept");
+        cache.close();
+    }
+
+    private static void evictsByCells() {
+        GridMap grid = new GridMap(1, 20);
+        PathCache cache = new PathCache(grid, 100, 25);
+        cache.findPath("BFS", 0, 9);  // 10 cells
+        cache.findPath("BFS", 0, 14); // 15 cells, 25 in total
+        check(cache.getEvictionCount() == 0, "evicted below the cell limit");
+        cache.findPath("BFS", 0, 4);  // 5 cells, so 0 -> 9 must go
+        check(cache.getCachedCells() == 20, "cached cells " + cache.getCachedCells() + ", expected 20");
+        check(cache.size() == 2, "size " + cache.size() + ", expected 2");
+        long misses = cache.getMissCount();
+        cache.findPath("BFS", 0, 14);
+        check(cache.getMissCount() == misses, "0 -> 14 was evicted instead of 0 -> 9");
+        cache.findPath("BFS", 0, 19); // 20 cells, so both others must go
+        check(cache.size() == 1 && cache.getCachedCells() == 20, "size " + cache.size() + ", cells " + cache.getCachedCells());
+        cache.close();
+    }
+
+    // Repeated batches with edits in between must match fresh searches
+    private static void batchFollowsEdits() {
+        Random random = new Random(4);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (BatchPathfinder batch = new BatchPathfinder(pool, 200, Long.MAX_VALUE)) {
+            GridMap grid = randomGrid(random);
+            List<PathQuery> queries = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                // Few distinct queries, so most of every batch is answered from the cache
+                queries.add(new PathQuery(random.nextInt(8), grid.size() - 1 - random.nextInt(8)));
+            }
+            DijkstraSolver reference = new DijkstraSolver();
+            for (int round = 0; round < 50; round++) {
+                for (int e = 0; e < 3; e++) {
+                    int index = random.nextInt(grid.size());
+                    if (random.nextBoolean()) {
+                        grid.setWall(index, !grid.isWall(index));
+                    } else {
+                        grid.setCost(index, 1 + random.nextInt(9));
+                    }
+                }
+                BatchResult result = batch.solve(grid, queries, "A*");
+                for (int i = 0; i < queries.size(); i++) {
+                    PathQuery query = queries.get(i);
+                    int start = query.getStart();
+                    int end = query.getEnd();
+                    // The batch answers a walled start with null before searching
+                    int[] best = grid.isWall(start) ? null : reference.solve(grid, start, end);
+                    compare(grid, result.getPath(i), best, start, end, "round " + round + " query " + i);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static GridMap randomGrid(Random random) {
+        GridMap grid = new GridMap(4 + random.nextInt(20), 4 + random.nextInt(20));
+        for (int i = 0; i < grid.size(); i++) {
+            grid.setWall(i, random.nextDouble() < 0.25);
+            if (random.nextInt(4) == 0) grid.setCost(i, 1 + random.nextInt(9));
+        }
+        return grid;
+    }
+
+    private static void compare(GridMap grid, int[] path, int[] best, int start, int end, String where) {
+        check((path == null) == (best == null), where + ": " + (path == null ? "no path, expected one" : "a path, expected none"));
+        if (path == null) return;
+        check(path[0] == start && path[path.length - 1] == end, where + ": wrong endpoints");
+        // The solvers search from a walled-in start, so only the later cells must be open
+        for (int i = 1; i < path.length; i++) {
+            check(!grid.isWall(path[i]), where + ": path crosses a wall at " + path[i]);
+            int rows = Math.abs(grid.row(path[i]) - grid.row(path[i - 1]));
+            int cols = Math.abs(grid.col(path[i]) - grid.col(path[i - 1]));
+            check(rows + cols == 1, where + ": path jumps from " + path[i - 1] + " to " + path[i]);
+        }
+        check(cost(grid, path) == cost(grid, best), where + ": cost " + cost(grid, path) + ", expected " + cost(grid, best));
+    }
+
+    private static long cost(GridMap grid, int[] path) {
+        long total = 0;
+        for (int i = 1; i < path.length; i++) {
+            total += grid.getCost(path[i]);
+        }
+        return total;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}